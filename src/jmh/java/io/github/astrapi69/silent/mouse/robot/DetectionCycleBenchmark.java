@@ -0,0 +1,110 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.robot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.pointer.InMemoryPointerDevice;
+import io.github.astrapi69.silent.mouse.pointer.PointerDevice;
+import io.github.astrapi69.silent.mouse.pointer.PointerPosition;
+import io.github.astrapi69.silent.mouse.pointer.RobotPointerDevice;
+
+/**
+ * Benchmarks for each step of one detection cycle of the {@link MouseMovementManager} and for the
+ * whole cycle. The mouse is moved by zero pixels, so every cycle takes the same path and the
+ * pointer stays where it is.<br>
+ * <br>
+ * By default the in-memory pointer device is used, so the benchmark runs headless. The real screen
+ * is measured with the JMH option {@code -p pointerDevice=robot}.<br>
+ * <br>
+ * The steady-state cycle is allocation free with the in-memory pointer device, the unit test
+ * {@code DetectionCycleAllocationTest} asserts that for every step with the allocated bytes of the
+ * thread, the gc profiler reports it as {@code gc.alloc.rate.norm}. The robot pointer device still
+ * allocates inside of AWT when it reads the pointer location
+ */
+@State(Scope.Thread)
+public class DetectionCycleBenchmark
+{
+	@Param({ "memory" })
+	String pointerDevice;
+
+	PointerDevice device;
+
+	MouseMovementManager mouseMovementManager;
+
+	int x;
+
+	int y;
+
+	@Setup
+	public void setup()
+	{
+		device = "robot".equals(pointerDevice)
+			? new RobotPointerDevice()
+			: new InMemoryPointerDevice();
+		mouseMovementManager = new MouseMovementManager(
+			SettingsModelBean.builder().xAxis(0).yAxis(0).build(), device);
+		mouseMovementManager.trackMousePosition();
+		final long mousePosition = device.samplePosition();
+		x = PointerPosition.x(mousePosition);
+		y = PointerPosition.y(mousePosition);
+	}
+
+	@Benchmark
+	public long samplePointer()
+	{
+		return device.samplePosition();
+	}
+
+	@Benchmark
+	public boolean sampleAndStoreTrackEntry()
+	{
+		return mouseMovementManager.trackMousePosition();
+	}
+
+	@Benchmark
+	public boolean compareWithLastEntry()
+	{
+		return mouseMovementManager.isIdle(x, y);
+	}
+
+	@Benchmark
+	public void moveMouse()
+	{
+		mouseMovementManager.moveMouse();
+	}
+
+	@Benchmark
+	public boolean detectionCycle()
+	{
+		mouseMovementManager.trackMousePosition();
+		return mouseMovementManager.executeDetectionCycle();
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.track;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for storing and reading entries of the {@link MouseTrackRingBuffer}
+ */
+@State(Scope.Thread)
+public class MouseTrackRingBufferBenchmark
+{
+	MouseTrackRingBuffer mouseTracks;
+
+	MouseTrack mouseTrack;
+
+	long timestamp;
+
+	@Setup
+	public void setup()
+	{
+		mouseTracks = new MouseTrackRingBuffer();
+		mouseTrack = new MouseTrack();
+		for (int i = 0; i < mouseTracks.getCapacity(); i++)
+		{
+			mouseTracks.add(i, i, i);
+		}
+		timestamp = mouseTracks.getCapacity();
+	}
+
+	@Benchmark
+	public void storeTrackEntry()
+	{
+		timestamp++;
+		mouseTracks.add(timestamp, (int)timestamp, (int)timestamp);
+	}
+
+	@Benchmark
+	public boolean compareWithLastEntry()
+	{
+		return mouseTracks.lastEntry(mouseTrack) && mouseTrack.isAt(100, 100);
+	}
+
+	@Benchmark
+	public int rangeOfLastHundredEntries(final Blackhole blackhole)
+	{
+		return mouseTracks.forEachInRange(timestamp - 100, timestamp + 1, mouseTrack,
+			(entryTimestamp, x, y) -> blackhole.consume(x + y));
+	}
+}
@@ -0,0 +1,195 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.control;
+
+import io.github.astrapi69.silent.mouse.extension.SettingsExtensions;
+import io.github.astrapi69.silent.mouse.metrics.MouseMovementMetrics;
+import io.github.astrapi69.silent.mouse.model.SettingsSnapshot;
+import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
+import io.github.astrapi69.silent.mouse.track.ActivityHistory;
+
+/**
+ * The class {@link ControlCommandHandler} executes the commands of the line protocol of the
+ * {@link ControlServer} against a {@link MouseMovementManager}. Every command is one line, every
+ * answer is one line that starts with <code>OK</code> or <code>ERR</code>. The commands are:
+ * <ul>
+ * <li><code>start</code> starts the manager</li>
+ * <li><code>stop</code> stops the manager</li>
+ * <li><code>status</code> answers the state and the counters of the manager</li>
+ * <li><code>get</code> answers the current settings</li>
+ * <li><code>history</code> answers the active and idle minutes and the nudges of today and of
+ * this week</li>
+ * <li><code>set key=value ...</code> patches one or more settings, the keys are the ones of the
+ * preferences</li>
+ * <li><code>help</code> answers the list of the commands</li>
+ * </ul>
+ */
+public class ControlCommandHandler
+{
+
+	/** The answer prefix of a successful command */
+	public static final String OK = "OK";
+
+	/** The answer prefix of a failed command */
+	public static final String ERR = "ERR";
+
+	/** The manager the commands are executed against */
+	private final MouseMovementManager mouseMovementManager;
+
+	/**
+	 * Instantiates a new {@link ControlCommandHandler} for the given manager
+	 *
+	 * @param mouseMovementManager
+	 *            the manager the commands are executed against
+	 */
+	public ControlCommandHandler(final MouseMovementManager mouseMovementManager)
+	{
+		this.mouseMovementManager = mouseMovementManager;
+	}
+
+	/**
+	 * Executes the given command line
+	 *
+	 * @param line
+	 *            the command line without the line terminator
+	 * @return the answer line without the line terminator
+	 */
+	public String handle(final String line)
+	{
+		final String trimmedLine = line.trim();
+		final int separator = trimmedLine.indexOf(' ');
+		final String command = separator < 0 ? trimmedLine : trimmedLine.substring(0, separator);
+		final String arguments = separator < 0 ? "" : trimmedLine.substring(separator + 1).trim();
+		try
+		{
+			switch (command.toLowerCase())
+			{
+				case "start" :
+					mouseMovementManager.start();
+					return status();
+				case "stop" :
+					mouseMovementManager.stop();
+					return status();
+				case "status" :
+					return status();
+				case "get" :
+					return settings();
+				case "history" :
+					return history();
+				case "set" :
+					return set(arguments);
+				case "help" :
+					return OK
+						+ " commands: start, stop, status, get, history, set key=value ..., help";
+				default :
+					return ERR + " unknown command '" + command + "'";
+			}
+		}
+		catch (RuntimeException ex)
+		{
+			return ERR + " " + ex.getMessage();
+		}
+	}
+
+	/**
+	 * Answers the state and the counters of the manager
+	 *
+	 * @return the answer line
+	 */
+	private String status()
+	{
+		final MouseMovementMetrics metrics = mouseMovementManager.getMetrics();
+		return OK + " running=" + mouseMovementManager.isRunning() + " state="
+			+ metrics.getState() + " samples=" + metrics.getSampleCount() + " nudges="
+			+ metrics.getNudgeCount() + " lastMoveTimestamp=" + metrics.getLastMoveTimestamp();
+	}
+
+	/**
+	 * Answers the active and idle minutes and the nudges of today and of this week
+	 *
+	 * @return the answer line
+	 */
+	private String history()
+	{
+		final ActivityHistory activityHistory = mouseMovementManager.getActivityHistory();
+		final long now = System.currentTimeMillis();
+		final long today = ActivityHistory.getStartOfToday();
+		final long week = ActivityHistory.getStartOfWeek();
+		return OK + " activeMinutesToday=" + activityHistory.getActiveMillis(today, now) / 60000
+			+ " idleMinutesToday=" + activityHistory.getIdleMillis(today, now) / 60000
+			+ " nudgesToday=" + activityHistory.getNudgeCount(today, now)
+			+ " activeMinutesThisWeek=" + activityHistory.getActiveMillis(week, now) / 60000
+			+ " idleMinutesThisWeek=" + activityHistory.getIdleMillis(week, now) / 60000
+			+ " nudgesThisWeek=" + activityHistory.getNudgeCount(week, now);
+	}
+
+	/**
+	 * Answers the current settings
+	 *
+	 * @return the answer line
+	 */
+	private String settings()
+	{
+		final SettingsSnapshot settings = mouseMovementManager.getSettings();
+		return OK + " version=" + settings.getVersion() + " " + SettingsExtensions.X_AXIS + "="
+			+ settings.getXAxis() + " " + SettingsExtensions.Y_AXIS + "=" + settings.getYAxis() + " "
+			+ SettingsExtensions.INTERVAL_OF_MOVEMENT + "=" + settings.getIntervalOfMovement()
+			+ " " + SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK + "="
+			+ settings.getIntervalOfMouseMovementsCheck() + " "
+			+ SettingsExtensions.MAX_INTERVAL_OF_MOUSE_MOVEMENTS_CHECK + "="
+			+ settings.getMaxIntervalOfMouseMovementsCheck() + " "
+			+ SettingsExtensions.MOVE_ON_STARTUP + "=" + settings.isMoveOnStartup() + " "
+			+ SettingsExtensions.EXECUTION_MODE + "=" + settings.getExecutionMode();
+	}
+
+	/**
+	 * Patches the settings with the given assignments as one {@link SettingsPatch}, so either all
+	 * or none of them are applied
+	 *
+	 * @param arguments
+	 *            the assignments separated by whitespace, for instance
+	 *            <code>intervalOfMovement=PT2M xAxis=2</code>
+	 * @return the answer line
+	 */
+	private String set(final String arguments)
+	{
+		if (arguments.isEmpty())
+		{
+			return ERR + " usage: set key=value ...";
+		}
+		final SettingsPatch settingsPatch = new SettingsPatch();
+		for (final String assignment : arguments.split("\\s+"))
+		{
+			final int equals = assignment.indexOf('=');
+			if (equals <= 0)
+			{
+				return ERR + " invalid assignment '" + assignment + "'";
+			}
+			settingsPatch.put(assignment.substring(0, equals), assignment.substring(equals + 1));
+		}
+		settingsPatch.applyTo(mouseMovementManager);
+		return settings();
+	}
+}
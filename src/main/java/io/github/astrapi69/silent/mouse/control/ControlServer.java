@@ -0,0 +1,329 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.control;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.logging.Level;
+
+import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link ControlServer} serves the line protocol of the {@link ControlCommandHandler} on
+ * a Unix domain socket, so a running service can be started, stopped, queried and reconfigured
+ * without a restart of the JVM, for instance with
+ * <code>echo status | nc -U /run/user/1000/silent-mouse.sock</code>.<br>
+ * <br>
+ * The socket is bound inside a private directory that only its owner can access and is moved to
+ * its path after its permissions are restricted, so it is never accessible by other users. Every
+ * connection is served on its own virtual thread, so an idle client does not block other control
+ * requests. The server does not load any Swing classes
+ */
+@Log
+public class ControlServer implements Closeable
+{
+
+	/** The system property that enables the control socket with the given path */
+	public static final String SOCKET_PROPERTY = "silent.mouse.control.socket";
+
+	/** The name of the thread that accepts the connections */
+	public static final String THREAD_NAME = "silent-mouse-control";
+
+	/** The name prefix of the virtual threads that serve the connections */
+	private static final String CONNECTION_THREAD_NAME = THREAD_NAME + "-connection-";
+
+	/** The maximum length of a command line in bytes */
+	private static final int MAX_LINE_LENGTH = 4096;
+
+	/** The path of the socket file */
+	@Getter
+	private final Path socketPath;
+
+	/** The handler that executes the commands */
+	private final ControlCommandHandler commandHandler;
+
+	/** The channel the server accepts connections on */
+	private final ServerSocketChannel serverChannel;
+
+	/** The thread that accepts the connections */
+	private final Thread thread;
+
+	/** The builder of the virtual threads that serve the connections */
+	private final Thread.Builder connectionThreadBuilder = Thread.ofVirtual()
+		.name(CONNECTION_THREAD_NAME, 0);
+
+	/** Flag that indicates if the server is closed */
+	private volatile boolean closed;
+
+	/**
+	 * Instantiates a new {@link ControlServer} bound to the given socket path. A stale socket file
+	 * of a previous run is replaced. The server is not started
+	 *
+	 * @param socketPath
+	 *            the path of the socket file
+	 * @param commandHandler
+	 *            the handler that executes the commands
+	 * @throws IOException
+	 *             if the socket can not be bound or the path is a regular file
+	 */
+	public ControlServer(final Path socketPath, final ControlCommandHandler commandHandler)
+		throws IOException
+	{
+		if (Files.isRegularFile(socketPath))
+		{
+			throw new IOException("Control socket path " + socketPath + " is a regular file");
+		}
+		Files.deleteIfExists(socketPath);
+		this.socketPath = socketPath;
+		this.commandHandler = commandHandler;
+		this.serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		try
+		{
+			bind(serverChannel, socketPath);
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			serverChannel.close();
+			throw ex;
+		}
+		this.thread = new Thread(this::serve, THREAD_NAME);
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * Binds the given channel to the given socket path. On a POSIX file system the socket is bound
+	 * inside a new directory with the permissions <code>rwx------</code>, restricted to
+	 * <code>rw-------</code> and then moved to its path, so it is never accessible by other users
+	 *
+	 * @param serverChannel
+	 *            the channel to bind
+	 * @param socketPath
+	 *            the path of the socket file
+	 * @throws IOException
+	 *             if the socket can not be bound or moved
+	 */
+	private static void bind(final ServerSocketChannel serverChannel, final Path socketPath)
+		throws IOException
+	{
+		if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix"))
+		{
+			serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+			return;
+		}
+		final Path parent = socketPath.toAbsolutePath().getParent();
+		final Path privateDirectory = Files.createTempDirectory(parent,
+			"." + socketPath.getFileName() + "-",
+			PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+		final Path privateSocketPath = privateDirectory.resolve(socketPath.getFileName());
+		try
+		{
+			serverChannel.bind(UnixDomainSocketAddress.of(privateSocketPath));
+			Files.setPosixFilePermissions(privateSocketPath,
+				PosixFilePermissions.fromString("rw-------"));
+			Files.move(privateSocketPath, socketPath, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			Files.deleteIfExists(privateSocketPath);
+			Files.deleteIfExists(privateDirectory);
+		}
+	}
+
+	/**
+	 * Starts a new {@link ControlServer} for the given manager if the system property
+	 * {@value #SOCKET_PROPERTY} is set. A failure is logged and does not affect the manager
+	 *
+	 * @param mouseMovementManager
+	 *            the manager that is controlled
+	 * @return the started server or null if the control socket is disabled or could not be started
+	 */
+	public static ControlServer startIfEnabled(final MouseMovementManager mouseMovementManager)
+	{
+		final String socketPath = System.getProperty(SOCKET_PROPERTY);
+		if (socketPath == null || socketPath.isBlank())
+		{
+			return null;
+		}
+		try
+		{
+			final ControlServer controlServer = new ControlServer(Path.of(socketPath.trim()),
+				new ControlCommandHandler(mouseMovementManager));
+			controlServer.start();
+			return controlServer;
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			log.warning("Control socket " + socketPath + " could not be started: "
+				+ ex.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Starts the server
+	 */
+	public void start()
+	{
+		thread.start();
+		log.info("Control socket started at " + socketPath);
+	}
+
+	/**
+	 * Closes the server and removes the socket file
+	 */
+	@Override
+	public void close()
+	{
+		closed = true;
+		try
+		{
+			serverChannel.close();
+			Files.deleteIfExists(socketPath);
+		}
+		catch (IOException ex)
+		{
+			log.log(Level.WARNING, "Control socket could not be closed: " + ex.getMessage(), ex);
+		}
+		log.info("Control socket stopped");
+	}
+
+	/**
+	 * Accepts connections until the server is closed and serves every connection on its own
+	 * virtual thread
+	 */
+	private void serve()
+	{
+		while (!closed)
+		{
+			try
+			{
+				final SocketChannel channel = serverChannel.accept();
+				connectionThreadBuilder.start(() -> serveConnection(channel));
+			}
+			catch (ClosedChannelException ex)
+			{
+				return;
+			}
+			catch (IOException ex)
+			{
+				if (!closed)
+				{
+					log.log(Level.WARNING, "Control connection failed: " + ex.getMessage(), ex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Serves the given connection and closes it afterwards
+	 *
+	 * @param channel
+	 *            the channel of the connection
+	 */
+	private void serveConnection(final SocketChannel channel)
+	{
+		try (channel)
+		{
+			serve(channel);
+		}
+		catch (IOException ex)
+		{
+			if (!closed)
+			{
+				log.log(Level.WARNING, "Control connection failed: " + ex.getMessage(), ex);
+			}
+		}
+	}
+
+	/**
+	 * Serves the given connection until the client closes it. Every received line is executed as
+	 * command and answered with one line
+	 *
+	 * @param channel
+	 *            the channel of the connection
+	 * @throws IOException
+	 *             if the connection fails
+	 */
+	private void serve(final SocketChannel channel) throws IOException
+	{
+		final ByteBuffer input = ByteBuffer.allocate(MAX_LINE_LENGTH);
+		while (channel.read(input) >= 0)
+		{
+			int lineStart = 0;
+			for (int i = 0; i < input.position(); i++)
+			{
+				if (input.get(i) == '\n')
+				{
+					final String line = new String(input.array(), lineStart, i - lineStart,
+						StandardCharsets.UTF_8);
+					answer(channel, commandHandler.handle(line));
+					lineStart = i + 1;
+				}
+			}
+			input.flip().position(lineStart);
+			input.compact();
+			if (!input.hasRemaining())
+			{
+				input.clear();
+				answer(channel, ControlCommandHandler.ERR + " line longer than "
+					+ MAX_LINE_LENGTH + " bytes");
+			}
+		}
+	}
+
+	/**
+	 * Writes the given answer line to the given connection
+	 *
+	 * @param channel
+	 *            the channel of the connection
+	 * @param answer
+	 *            the answer line without the line terminator
+	 * @throws IOException
+	 *             if the answer can not be written
+	 */
+	private static void answer(final SocketChannel channel, final String answer)
+		throws IOException
+	{
+		final ByteBuffer output = StandardCharsets.UTF_8.encode(answer + "\n");
+		while (output.hasRemaining())
+		{
+			channel.write(output);
+		}
+	}
+}
@@ -0,0 +1,285 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.control;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link SettingsFileWatcher} watches a settings file with a {@link WatchService} and
+ * applies changed values to a running {@link MouseMovementManager} as one {@link SettingsPatch}.
+ * The file is a properties file with the keys of the preferences, for instance
+ * <code>intervalOfMovement=PT2M</code>. Pending tasks of the manager are scheduled again with the
+ * new intervals.<br>
+ * <br>
+ * Editors usually write a file with several events, so the events are coalesced until the file
+ * was quiet for a short period. The latency from the first event to the applied settings is
+ * logged and recorded in the metrics of the manager
+ */
+@Log
+public class SettingsFileWatcher implements Closeable
+{
+
+	/** The system property that enables the watcher with the given settings file */
+	public static final String FILE_PROPERTY = "silent.mouse.settings.file";
+
+	/** The name of the thread that watches the settings file */
+	public static final String THREAD_NAME = "silent-mouse-settings-watcher";
+
+	/** The period without events after which a change is applied in milliseconds */
+	private static final long QUIET_PERIOD_IN_MILLIS = 25;
+
+	/** The watched settings file */
+	@Getter
+	private final Path settingsFile;
+
+	/** The manager the settings are applied to */
+	private final MouseMovementManager mouseMovementManager;
+
+	/** The watch service of the directory of the settings file */
+	private final WatchService watchService;
+
+	/** The thread that watches the settings file */
+	private final Thread thread;
+
+	/** Flag that indicates if the watcher is closed */
+	private volatile boolean closed;
+
+	/**
+	 * Instantiates a new {@link SettingsFileWatcher} for the given settings file. The watcher is
+	 * not started
+	 *
+	 * @param settingsFile
+	 *            the settings file, it does not need to exist yet
+	 * @param mouseMovementManager
+	 *            the manager the settings are applied to
+	 * @throws IOException
+	 *             if the directory of the settings file can not be watched
+	 */
+	public SettingsFileWatcher(final Path settingsFile,
+		final MouseMovementManager mouseMovementManager) throws IOException
+	{
+		this.settingsFile = settingsFile.toAbsolutePath();
+		this.mouseMovementManager = mouseMovementManager;
+		this.watchService = this.settingsFile.getFileSystem().newWatchService();
+		this.settingsFile.getParent().register(watchService,
+			StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		this.thread = new Thread(this::watch, THREAD_NAME);
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * Starts a new {@link SettingsFileWatcher} for the given manager if the system property
+	 * {@value #FILE_PROPERTY} is set. A failure is logged and does not affect the manager
+	 *
+	 * @param mouseMovementManager
+	 *            the manager the settings are applied to
+	 * @return the started watcher or null if the watcher is disabled or could not be started
+	 */
+	public static SettingsFileWatcher startIfEnabled(
+		final MouseMovementManager mouseMovementManager)
+	{
+		final String settingsFile = System.getProperty(FILE_PROPERTY);
+		if (settingsFile == null || settingsFile.isBlank())
+		{
+			return null;
+		}
+		try
+		{
+			final SettingsFileWatcher settingsFileWatcher = new SettingsFileWatcher(
+				Path.of(settingsFile.trim()), mouseMovementManager);
+			settingsFileWatcher.start();
+			return settingsFileWatcher;
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			log.warning("Settings file " + settingsFile + " could not be watched: "
+				+ ex.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Applies the settings file if it exists and starts watching it
+	 */
+	public void start()
+	{
+		if (Files.exists(settingsFile))
+		{
+			reload(System.nanoTime());
+		}
+		thread.start();
+		log.info("Watching settings file " + settingsFile);
+	}
+
+	/**
+	 * Stops watching the settings file
+	 */
+	@Override
+	public void close()
+	{
+		closed = true;
+		try
+		{
+			watchService.close();
+		}
+		catch (IOException ex)
+		{
+			log.warning("Settings file watcher could not be closed: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Waits for changes of the settings file until the watcher is closed
+	 */
+	private void watch()
+	{
+		while (!closed)
+		{
+			try
+			{
+				WatchKey watchKey = watchService.take();
+				final long detected = System.nanoTime();
+				boolean changed = isSettingsFileChanged(watchKey);
+				while ((watchKey = watchService.poll(QUIET_PERIOD_IN_MILLIS,
+					TimeUnit.MILLISECONDS)) != null)
+				{
+					changed |= isSettingsFileChanged(watchKey);
+				}
+				if (changed)
+				{
+					reload(detected);
+				}
+			}
+			catch (ClosedWatchServiceException ex)
+			{
+				return;
+			}
+			catch (InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Checks if the events of the given key concern the settings file and resets the key
+	 *
+	 * @param watchKey
+	 *            the signalled key
+	 * @return true if the settings file may have changed otherwise false
+	 */
+	private boolean isSettingsFileChanged(final WatchKey watchKey)
+	{
+		boolean changed = false;
+		for (final WatchEvent<?> event : watchKey.pollEvents())
+		{
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW
+				|| settingsFile.getFileName().equals(event.context()))
+			{
+				changed = true;
+			}
+		}
+		watchKey.reset();
+		return changed;
+	}
+
+	/**
+	 * Reads the settings file and applies the changed values to the manager
+	 *
+	 * @param detected
+	 *            the time the change was detected in the time base of {@link System#nanoTime()}
+	 */
+	private void reload(final long detected)
+	{
+		try
+		{
+			final SettingsPatch settingsPatch = readSettingsPatch();
+			if (settingsPatch.isEmpty()
+				|| !settingsPatch.changes(mouseMovementManager.getSettings()))
+			{
+				log.fine("Settings file " + settingsFile + " contains no changed settings");
+				return;
+			}
+			settingsPatch.applyTo(mouseMovementManager);
+			final long latencyInNanos = System.nanoTime() - detected;
+			mouseMovementManager.getMetrics().recordSettingsReload(latencyInNanos);
+			log.info("Settings reloaded from " + settingsFile + " in "
+				+ TimeUnit.NANOSECONDS.toMicros(latencyInNanos) + " us: " + settingsPatch);
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			log.warning("Settings file " + settingsFile + " could not be reloaded: "
+				+ ex.getMessage());
+		}
+	}
+
+	/**
+	 * Reads the settings file into a {@link SettingsPatch}. Settings that can not be changed at
+	 * runtime are logged and ignored
+	 *
+	 * @return the settings patch
+	 * @throws IOException
+	 *             if the settings file can not be read
+	 */
+	private SettingsPatch readSettingsPatch() throws IOException
+	{
+		final Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(settingsFile, StandardCharsets.UTF_8))
+		{
+			properties.load(reader);
+		}
+		final SettingsPatch settingsPatch = new SettingsPatch();
+		for (final String key : properties.stringPropertyNames())
+		{
+			if (SettingsPatch.PATCHABLE_SETTINGS.contains(key))
+			{
+				settingsPatch.put(key, properties.getProperty(key));
+			}
+			else
+			{
+				log.warning("Ignoring setting '" + key + "' of settings file " + settingsFile
+					+ ", it can not be changed at runtime");
+			}
+		}
+		return settingsPatch;
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.control;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.astrapi69.silent.mouse.extension.SettingsExtensions;
+import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.model.SettingsSnapshot;
+import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
+
+/**
+ * The class {@link SettingsPatch} is a set of new values for the settings of a running
+ * {@link MouseMovementManager}. A patch is validated against a copy of the current
+ * {@link SettingsSnapshot} before it is applied, so either all or none of its values are applied
+ * and the settings model of the manager is only accessed under its lock
+ */
+public class SettingsPatch
+{
+
+	/** The settings that can be patched while the manager is running */
+	public static final List<String> PATCHABLE_SETTINGS = List.of(SettingsExtensions.X_AXIS,
+		SettingsExtensions.Y_AXIS, SettingsExtensions.INTERVAL_OF_MOVEMENT,
+		SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+		SettingsExtensions.MAX_INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+		SettingsExtensions.MOVE_ON_STARTUP);
+
+	/** The new values by the keys of the settings */
+	private final Map<String, String> values = new LinkedHashMap<>();
+
+	/**
+	 * Adds the given value for the setting with the given key
+	 *
+	 * @param key
+	 *            the key of the setting
+	 * @param value
+	 *            the new value as string
+	 * @return this {@link SettingsPatch} for chaining
+	 * @throws IllegalArgumentException
+	 *             if the setting can not be changed at runtime
+	 */
+	public SettingsPatch put(final String key, final String value)
+	{
+		if (!PATCHABLE_SETTINGS.contains(key))
+		{
+			throw new IllegalArgumentException(
+				"setting '" + key + "' can not be changed at runtime");
+		}
+		values.put(key, value);
+		return this;
+	}
+
+	/**
+	 * Checks if this patch contains no values
+	 *
+	 * @return true if this patch contains no values otherwise false
+	 */
+	public boolean isEmpty()
+	{
+		return values.isEmpty();
+	}
+
+	/**
+	 * Checks if this patch changes any of the given settings
+	 *
+	 * @param settings
+	 *            the snapshot of the settings to compare with
+	 * @return true if at least one value differs from the given settings otherwise false
+	 * @throws IllegalArgumentException
+	 *             if a value is invalid
+	 */
+	public boolean changes(final SettingsSnapshot settings)
+	{
+		return !SettingsSnapshot.of(settings.getVersion(), validate(settings)).equals(settings);
+	}
+
+	/**
+	 * Validates this patch against a copy of the given settings
+	 *
+	 * @param settings
+	 *            the snapshot of the settings the patch is validated against
+	 * @return the patched copy of the given settings
+	 * @throws IllegalArgumentException
+	 *             if a value is invalid
+	 */
+	public SettingsModelBean validate(final SettingsSnapshot settings)
+	{
+		final SettingsModelBean copy = settings.toSettingsModelBean();
+		applyTo(copy);
+		return copy;
+	}
+
+	/**
+	 * Validates this patch and applies it to the settings of the given manager while no task of
+	 * the manager is executing
+	 *
+	 * @param mouseMovementManager
+	 *            the manager whose settings are patched
+	 * @throws IllegalArgumentException
+	 *             if a value is invalid, in this case nothing is applied
+	 */
+	public void applyTo(final MouseMovementManager mouseMovementManager)
+	{
+		validate(mouseMovementManager.getSettings());
+		mouseMovementManager.updateSettings(this::applyTo);
+	}
+
+	/**
+	 * Applies the values of this patch to the given settings
+	 *
+	 * @param settingsModelBean
+	 *            the settings to patch
+	 */
+	private void applyTo(final SettingsModelBean settingsModelBean)
+	{
+		values.forEach((key, value) -> SettingsExtensions.setValue(settingsModelBean, key, value));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString()
+	{
+		return values.toString();
+	}
+}
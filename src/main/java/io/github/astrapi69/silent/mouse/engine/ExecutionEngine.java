@@ -0,0 +1,241 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.engine;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link ExecutionEngine} runs the periodic work of the application as cancellable
+ * scheduled tasks on one shared scheduler thread. Starting and stopping tasks never creates new
+ * threads, the scheduler thread is created once on first use and lives as a daemon thread until
+ * the JVM exits.<br>
+ * <br>
+ * In the {@link ExecutionMode#VIRTUAL} mode the scheduler thread is a virtual thread. While it
+ * waits for the next task it is unmounted and does not hold a carrier thread, so many managers in
+ * one JVM do not hold one sleeping platform thread each.<br>
+ * <br>
+ * Tasks that are scheduled with a slack go through a {@link TimerWheel}, which defers them by at
+ * most their slack so that tasks with overlapping windows share one wake-up of the scheduler
+ * thread. The periodic work of the application passes a slack, only the first run of a task and
+ * short delays are scheduled exactly
+ */
+@Log
+public final class ExecutionEngine
+{
+
+	/** The name of the scheduler thread */
+	public static final String THREAD_NAME = "silent-mouse-scheduler";
+
+	/** The class of the carrier threads of the virtual thread scheduler of the JVM */
+	private static final String CARRIER_THREAD_CLASS_NAME = "jdk.internal.misc.CarrierThread";
+
+	/** The shared instances for each execution mode, created on first use */
+	private static final Map<ExecutionMode, ExecutionEngine> SHARED = new EnumMap<>(
+		ExecutionMode.class);
+
+	/** The execution mode of this engine */
+	@Getter
+	private final ExecutionMode executionMode;
+
+	/** The executor that runs the scheduled tasks */
+	private final ScheduledThreadPoolExecutor executor;
+
+	/** The wheel that coalesces the tasks with slack */
+	private final TimerWheel timerWheel;
+
+	/**
+	 * Instantiates a new {@link ExecutionEngine} with the given execution mode
+	 *
+	 * @param executionMode
+	 *            the execution mode
+	 */
+	private ExecutionEngine(final ExecutionMode executionMode)
+	{
+		this.executionMode = executionMode;
+		executor = new ScheduledThreadPoolExecutor(1, newThreadFactory(executionMode));
+		executor.setRemoveOnCancelPolicy(true);
+		executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		timerWheel = new TimerWheel(this);
+	}
+
+	/**
+	 * Gets the shared {@link ExecutionEngine} in the {@link ExecutionMode#PLATFORM} mode
+	 *
+	 * @return the shared {@link ExecutionEngine}
+	 */
+	public static ExecutionEngine getShared()
+	{
+		return getShared(ExecutionMode.PLATFORM);
+	}
+
+	/**
+	 * Gets the shared {@link ExecutionEngine} for the given execution mode
+	 *
+	 * @param executionMode
+	 *            the execution mode, null is treated as {@link ExecutionMode#PLATFORM}
+	 * @return the shared {@link ExecutionEngine}
+	 */
+	public static synchronized ExecutionEngine getShared(final ExecutionMode executionMode)
+	{
+		final ExecutionMode mode = executionMode != null ? executionMode : ExecutionMode.PLATFORM;
+		return SHARED.computeIfAbsent(mode, key -> {
+			log.fine("Created shared execution engine in mode " + key);
+			return new ExecutionEngine(key);
+		});
+	}
+
+	/**
+	 * Factory method for create the thread factory of the scheduler thread
+	 *
+	 * @param executionMode
+	 *            the execution mode
+	 * @return the new {@link ThreadFactory} object
+	 */
+	private static ThreadFactory newThreadFactory(final ExecutionMode executionMode)
+	{
+		if (executionMode == ExecutionMode.VIRTUAL)
+		{
+			return Thread.ofVirtual().name(THREAD_NAME + "-virtual-", 0).factory();
+		}
+		return Thread.ofPlatform().name(THREAD_NAME).daemon(true).factory();
+	}
+
+	/**
+	 * Schedules the given task for a single execution after the given delay. A negative delay is
+	 * treated as zero
+	 *
+	 * @param task
+	 *            the task to execute
+	 * @param delay
+	 *            the delay before the execution
+	 * @param unit
+	 *            the time unit of the delay
+	 * @return the {@link Future} that can be used to cancel the task
+	 */
+	public Future<?> schedule(final Runnable task, final long delay, final TimeUnit unit)
+	{
+		return executor.schedule(task, delay, unit);
+	}
+
+	/**
+	 * Schedules the given task for a single execution after the given delay, the execution may be
+	 * deferred by up to the given slack to share a wake-up with other tasks. A slack shorter than
+	 * a tick of the {@link TimerWheel} schedules the task exactly
+	 *
+	 * @param task
+	 *            the task to execute
+	 * @param delay
+	 *            the delay before the execution
+	 * @param slack
+	 *            the time the execution may be deferred beyond the delay
+	 * @param unit
+	 *            the time unit of the delay and the slack
+	 * @return the {@link Future} that can be used to cancel the task
+	 */
+	public Future<?> schedule(final Runnable task, final long delay, final long slack,
+		final TimeUnit unit)
+	{
+		final long slackNanos = unit.toNanos(slack);
+		if (slackNanos < timerWheel.getTickNanos())
+		{
+			return schedule(task, delay, unit);
+		}
+		return timerWheel.schedule(task, unit.toNanos(delay), slackNanos);
+	}
+
+	/**
+	 * Gets the count of threads that are currently used by this engine
+	 *
+	 * @return the count of threads
+	 */
+	public int getThreadCount()
+	{
+		return executor.getPoolSize();
+	}
+
+	/**
+	 * Gets the count of live carrier threads of the virtual thread scheduler, the
+	 * <code>ForkJoinPool-*-worker-*</code> threads that the virtual threads of the JVM are mounted
+	 * on. The carriers are shared by all virtual threads, so in the {@link ExecutionMode#VIRTUAL}
+	 * mode this is the count of platform threads the tasks of the engine actually run on
+	 *
+	 * @return the count of carrier threads
+	 */
+	public static int getCarrierThreadCount()
+	{
+		ThreadGroup rootGroup = Thread.currentThread().getThreadGroup();
+		while (rootGroup.getParent() != null)
+		{
+			rootGroup = rootGroup.getParent();
+		}
+		Thread[] threads;
+		int threadCount;
+		do
+		{
+			threads = new Thread[rootGroup.activeCount() * 2 + 16];
+			threadCount = rootGroup.enumerate(threads);
+		}
+		while (threadCount == threads.length);
+		int carrierThreadCount = 0;
+		for (int i = 0; i < threadCount; i++)
+		{
+			if (CARRIER_THREAD_CLASS_NAME.equals(threads[i].getClass().getName()))
+			{
+				carrierThreadCount++;
+			}
+		}
+		return carrierThreadCount;
+	}
+
+	/**
+	 * Gets the count of tasks that are currently scheduled and not yet executed, including the
+	 * tasks in the {@link TimerWheel}
+	 *
+	 * @return the count of pending tasks
+	 */
+	public int getPendingTaskCount()
+	{
+		return executor.getQueue().size() + timerWheel.size();
+	}
+
+	/**
+	 * Gets the count of wake-ups of the scheduler thread, tasks that share a wake-up of the
+	 * {@link TimerWheel} are counted once
+	 *
+	 * @return the count of wake-ups
+	 */
+	public long getWakeUpCount()
+	{
+		return executor.getCompletedTaskCount();
+	}
+}
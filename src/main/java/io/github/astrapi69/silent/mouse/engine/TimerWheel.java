@@ -0,0 +1,426 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@link TimerWheel} is a hashed timer wheel that coalesces the wake-ups of tasks with
+ * slack. The time is divided into ticks of a fixed duration, a task with the deadline d and the
+ * slack s may run at any tick boundary from d to d + s. A new task joins a tick in that window
+ * that already holds tasks. Otherwise it takes the last tick of the window if other tasks are
+ * pending, so the tasks they add later find it, and the first tick if it is alone, since no task
+ * can join it then. Only one wake-up is scheduled on the {@link ExecutionEngine} at a time, for
+ * the earliest occupied tick, and all tasks of that tick run in that one wake-up.<br>
+ * <br>
+ * The slots of the wheel are the ticks modulo the wheel size, a slot holds the tasks of all ticks
+ * that map to it in an intrusive doubly linked list, so adding and cancelling a task do not
+ * allocate beyond the task itself. The wheel is guarded by its own monitor, the tasks run on the
+ * scheduler thread outside of it
+ */
+final class TimerWheel
+{
+
+	/** The default duration of a tick in nanoseconds */
+	static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/** The default count of slots, a power of two */
+	static final int DEFAULT_WHEEL_SIZE = 512;
+
+	/** The engine the wake-ups are scheduled on */
+	private final ExecutionEngine executionEngine;
+
+	/** The duration of a tick in nanoseconds */
+	private final long tickNanos;
+
+	/** The heads of the task lists of the slots */
+	private final WheelTask[] slots;
+
+	/** The mask that maps a tick to its slot */
+	private final int mask;
+
+	/** The origin of the ticks in the time base of {@link System#nanoTime()} */
+	private final long origin = System.nanoTime();
+
+	/** The tasks of the current wake-up, the list is reused by every wake-up */
+	private final List<WheelTask> expiredTasks = new ArrayList<>();
+
+	/** The count of pending tasks */
+	private int size;
+
+	/** The last tick whose tasks were run */
+	private long processedTick = -1;
+
+	/** The tick of the scheduled wake-up, {@link Long#MAX_VALUE} if none is scheduled */
+	private long wakeUpTick = Long.MAX_VALUE;
+
+	/** The scheduled wake-up or null if none is scheduled */
+	private Future<?> wakeUp;
+
+	/**
+	 * Instantiates a new {@link TimerWheel} with the default tick duration and wheel size
+	 *
+	 * @param executionEngine
+	 *            the engine the wake-ups are scheduled on
+	 */
+	TimerWheel(final ExecutionEngine executionEngine)
+	{
+		this(executionEngine, DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+	}
+
+	/**
+	 * Instantiates a new {@link TimerWheel}
+	 *
+	 * @param executionEngine
+	 *            the engine the wake-ups are scheduled on
+	 * @param tickNanos
+	 *            the duration of a tick in nanoseconds
+	 * @param wheelSize
+	 *            the count of slots, a power of two
+	 */
+	TimerWheel(final ExecutionEngine executionEngine, final long tickNanos, final int wheelSize)
+	{
+		if (tickNanos <= 0)
+		{
+			throw new IllegalArgumentException("Tick must be positive but was " + tickNanos);
+		}
+		if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1)
+		{
+			throw new IllegalArgumentException(
+				"Wheel size must be a power of two but was " + wheelSize);
+		}
+		this.executionEngine = executionEngine;
+		this.tickNanos = tickNanos;
+		this.slots = new WheelTask[wheelSize];
+		this.mask = wheelSize - 1;
+	}
+
+	/**
+	 * Gets the duration of a tick, a slack below it does not allow any coalescing
+	 *
+	 * @return the duration of a tick in nanoseconds
+	 */
+	long getTickNanos()
+	{
+		return tickNanos;
+	}
+
+	/**
+	 * Gets the count of pending tasks
+	 *
+	 * @return the count of pending tasks
+	 */
+	synchronized int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Schedules the given task to run once at a tick between the given delay and the delay plus
+	 * the given slack
+	 *
+	 * @param task
+	 *            the task to execute
+	 * @param delayNanos
+	 *            the delay before the execution in nanoseconds, a negative delay is treated as zero
+	 * @param slackNanos
+	 *            the time the execution may be deferred beyond the delay in nanoseconds
+	 * @return the {@link Future} that can be used to cancel the task
+	 */
+	Future<?> schedule(final Runnable task, final long delayNanos, final long slackNanos)
+	{
+		final long now = System.nanoTime();
+		final long deadline = now - origin + Math.max(0, delayNanos);
+		final long firstTick = Math.ceilDiv(deadline, tickNanos);
+		final long lastTick = Math.max(firstTick,
+			Math.floorDiv(deadline + Math.max(0, slackNanos), tickNanos));
+		final WheelTask wheelTask = new WheelTask(task);
+		synchronized (this)
+		{
+			wheelTask.tick = Math.max(processedTick + 1, findOccupiedTick(firstTick, lastTick));
+			link(wheelTask);
+			if (wheelTask.tick < wakeUpTick)
+			{
+				scheduleWakeUp(wheelTask.tick, now);
+			}
+		}
+		return wheelTask;
+	}
+
+	/**
+	 * Finds a tick in the given window that already holds tasks. Only one revolution of the wheel
+	 * is searched
+	 *
+	 * @param firstTick
+	 *            the first tick of the window
+	 * @param lastTick
+	 *            the last tick of the window
+	 * @return the first occupied tick of the window, if none is occupied the last tick if other
+	 *         tasks are pending or the first tick if the wheel is empty
+	 */
+	private long findOccupiedTick(final long firstTick, final long lastTick)
+	{
+		final long endTick = Math.min(lastTick, firstTick + mask);
+		for (long tick = firstTick; tick <= endTick; tick++)
+		{
+			if (hasTaskAt(tick))
+			{
+				return tick;
+			}
+		}
+		return size == 0 ? firstTick : lastTick;
+	}
+
+	/**
+	 * Checks if the given tick holds tasks
+	 *
+	 * @param tick
+	 *            the tick
+	 * @return true if the tick holds tasks otherwise false
+	 */
+	private boolean hasTaskAt(final long tick)
+	{
+		for (WheelTask task = slots[(int)(tick & mask)]; task != null; task = task.next)
+		{
+			if (task.tick == tick)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Finds the earliest tick that holds tasks
+	 *
+	 * @return the earliest occupied tick or {@link Long#MAX_VALUE} if the wheel is empty
+	 */
+	private long findEarliestTick()
+	{
+		if (size == 0)
+		{
+			return Long.MAX_VALUE;
+		}
+		final long firstTick = processedTick + 1;
+		for (long tick = firstTick; tick <= firstTick + mask; tick++)
+		{
+			if (hasTaskAt(tick))
+			{
+				return tick;
+			}
+		}
+		long earliestTick = Long.MAX_VALUE;
+		for (final WheelTask head : slots)
+		{
+			for (WheelTask task = head; task != null; task = task.next)
+			{
+				earliestTick = Math.min(earliestTick, task.tick);
+			}
+		}
+		return earliestTick;
+	}
+
+	/**
+	 * Schedules the single wake-up of the wheel at the given tick and cancels a previous one
+	 *
+	 * @param tick
+	 *            the tick of the wake-up
+	 * @param now
+	 *            the current time in the time base of {@link System#nanoTime()}
+	 */
+	private void scheduleWakeUp(final long tick, final long now)
+	{
+		if (wakeUp != null)
+		{
+			wakeUp.cancel(false);
+		}
+		wakeUpTick = tick;
+		wakeUp = executionEngine.schedule(this::advance, origin + tick * tickNanos - now,
+			TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Cancels the scheduled wake-up
+	 */
+	private void cancelWakeUp()
+	{
+		if (wakeUp != null)
+		{
+			wakeUp.cancel(false);
+			wakeUp = null;
+		}
+		wakeUpTick = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Runs all tasks of the ticks up to the current one and schedules the next wake-up
+	 */
+	private void advance()
+	{
+		synchronized (this)
+		{
+			cancelWakeUp();
+			final long currentTick = Math.floorDiv(System.nanoTime() - origin, tickNanos);
+			final long firstTick = Math.max(processedTick + 1, currentTick - mask);
+			for (long tick = firstTick; tick <= currentTick; tick++)
+			{
+				WheelTask task = slots[(int)(tick & mask)];
+				while (task != null)
+				{
+					final WheelTask next = task.next;
+					if (task.tick <= currentTick)
+					{
+						unlink(task);
+						expiredTasks.add(task);
+					}
+					task = next;
+				}
+			}
+			processedTick = Math.max(processedTick, currentTick);
+			if (0 < size)
+			{
+				scheduleWakeUp(findEarliestTick(), System.nanoTime());
+			}
+		}
+		try
+		{
+			for (int i = 0; i < expiredTasks.size(); i++)
+			{
+				expiredTasks.get(i).run();
+			}
+		}
+		finally
+		{
+			expiredTasks.clear();
+		}
+	}
+
+	/**
+	 * Links the given task into the slot of its tick. Must be called while holding the monitor
+	 *
+	 * @param task
+	 *            the task to link
+	 */
+	private void link(final WheelTask task)
+	{
+		final int slot = (int)(task.tick & mask);
+		task.next = slots[slot];
+		if (task.next != null)
+		{
+			task.next.previous = task;
+		}
+		slots[slot] = task;
+		task.linked = true;
+		size++;
+	}
+
+	/**
+	 * Unlinks the given task from the slot of its tick. Must be called while holding the monitor
+	 *
+	 * @param task
+	 *            the task to unlink
+	 */
+	private void unlink(final WheelTask task)
+	{
+		if (task.previous != null)
+		{
+			task.previous.next = task.next;
+		}
+		else
+		{
+			slots[(int)(task.tick & mask)] = task.next;
+		}
+		if (task.next != null)
+		{
+			task.next.previous = task.previous;
+		}
+		task.previous = null;
+		task.next = null;
+		task.linked = false;
+		size--;
+	}
+
+	/**
+	 * Removes the given cancelled task. The wake-up is moved if its tick holds no more tasks
+	 *
+	 * @param task
+	 *            the cancelled task
+	 */
+	private synchronized void remove(final WheelTask task)
+	{
+		if (!task.linked)
+		{
+			return;
+		}
+		unlink(task);
+		if (size == 0)
+		{
+			cancelWakeUp();
+		}
+		else if (task.tick == wakeUpTick && !hasTaskAt(task.tick))
+		{
+			scheduleWakeUp(findEarliestTick(), System.nanoTime());
+		}
+	}
+
+	/**
+	 * The class {@link WheelTask} is a task in a slot of the wheel
+	 */
+	private final class WheelTask extends FutureTask<Void>
+	{
+
+		/** The tick the task runs at */
+		private long tick;
+
+		/** The previous task in the slot */
+		private WheelTask previous;
+
+		/** The next task in the slot */
+		private WheelTask next;
+
+		/** Flag that indicates if the task is linked into a slot */
+		private boolean linked;
+
+		private WheelTask(final Runnable task)
+		{
+			super(task, null);
+		}
+
+		@Override
+		public boolean cancel(final boolean mayInterruptIfRunning)
+		{
+			final boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled)
+			{
+				remove(this);
+			}
+			return cancelled;
+		}
+	}
+}
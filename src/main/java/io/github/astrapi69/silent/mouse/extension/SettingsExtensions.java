@@ -24,9 +24,16 @@
  */
 package io.github.astrapi69.silent.mouse.extension;
 
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
 import java.util.prefs.Preferences;
 
+import io.github.astrapi69.silent.mouse.engine.ExecutionMode;
 import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.model.SettingsSnapshot;
 import io.github.astrapi69.silent.mouse.system.tray.SystemTrayType;
 
 /**
@@ -51,13 +58,30 @@ public class SettingsExtensions
 	public static final String Y_AXIS = "yAxis";
 
 	/**
-	 * Key for the interval of seconds setting in preferences
+	 * Key for the interval of movement setting in preferences
 	 */
-	public static final String INTERVAL_OF_SECONDS = "intervalOfSeconds";
+	public static final String INTERVAL_OF_MOVEMENT = "intervalOfMovement";
 
 	/**
 	 * Key for the interval of mouse movements check in preferences
 	 */
+	public static final String INTERVAL_OF_MOUSE_MOVEMENTS_CHECK = "intervalOfMouseMovementsCheck";
+
+	/**
+	 * Key for the maximum interval of mouse movements check in preferences
+	 */
+	public static final String MAX_INTERVAL_OF_MOUSE_MOVEMENTS_CHECK = "maxIntervalOfMouseMovementsCheck";
+
+	/**
+	 * Legacy key for the interval of movement in whole seconds, only read to migrate older
+	 * preferences
+	 */
+	public static final String INTERVAL_OF_SECONDS = "intervalOfSeconds";
+
+	/**
+	 * Legacy key for the interval of mouse movements check in whole seconds, only read to migrate
+	 * older preferences
+	 */
 	public static final String INTERVAL_OF_MOUSE_MOVEMENTS_CHECK_IN_SECONDS = "intervalOfMouseMovementsCheckInSeconds";
 
 	/**
@@ -70,15 +94,54 @@ public class SettingsExtensions
 	 */
 	public static final String SYSTEM_TRAY_TYPE = "systemTrayType";
 
+	/**
+	 * Key for the executionMode setting in preferences
+	 */
+	public static final String EXECUTION_MODE = "executionMode";
+
+	/**
+	 * The name of the preferences node of the application. It is the name of the class
+	 * <code>SystemTrayApplicationFrame</code> that created the node first, it is kept as string
+	 * so reading the settings does not load any frame or tray class
+	 */
+	public static final String PREFERENCES_NODE = "io.github.astrapi69.silent.mouse.frame.SystemTrayApplicationFrame";
+
+	/**
+	 * The prefix of the environment variables that override settings
+	 */
+	public static final String ENVIRONMENT_PREFIX = "SILENT_MOUSE_";
+
+	/**
+	 * The keys of all settings that can be set with
+	 * {@link #setValue(SettingsModelBean, String, String)}
+	 */
+	public static final List<String> SETTING_KEYS = List.of(X_AXIS, Y_AXIS, INTERVAL_OF_MOVEMENT,
+		INTERVAL_OF_MOUSE_MOVEMENTS_CHECK, MAX_INTERVAL_OF_MOUSE_MOVEMENTS_CHECK, MOVE_ON_STARTUP,
+		SYSTEM_TRAY_TYPE, EXECUTION_MODE);
+
 	/**
 	 * The constant for the default settings of the application
 	 */
 	public static final SettingsModelBean DEFAULT_SETTINGS = SettingsModelBean.builder()
-		.intervalOfSeconds(180).intervalOfMouseMovementsCheckInSeconds(90).xAxis(1).yAxis(1)
-		.moveOnStartup(true).systemTrayType(SystemTrayType.DORKBOX).build();
+		.intervalOfMovement(Duration.ofSeconds(180))
+		.intervalOfMouseMovementsCheck(Duration.ofSeconds(90))
+		.maxIntervalOfMouseMovementsCheck(Duration.ofSeconds(900)).xAxis(1).yAxis(1)
+		.moveOnStartup(true).systemTrayType(SystemTrayType.DORKBOX)
+		.executionMode(ExecutionMode.PLATFORM).build();
 
 	/**
-	 * Sets model from preferences.
+	 * Gets the preferences node of the application
+	 *
+	 * @return the preferences node of the application
+	 */
+	public static Preferences getApplicationPreferences()
+	{
+		return Preferences.userRoot().node(PREFERENCES_NODE);
+	}
+
+	/**
+	 * Sets model from preferences. The model is a new copy of the {@link #DEFAULT_SETTINGS}, so the
+	 * default settings are never changed
 	 *
 	 * @param applicationPreferences
 	 *            the application preferences
@@ -87,7 +150,23 @@ public class SettingsExtensions
 	public static SettingsModelBean setModelFromPreferences(
 		final Preferences applicationPreferences)
 	{
-		return setModelFromPreferences(DEFAULT_SETTINGS, applicationPreferences);
+		return setModelFromPreferences(DEFAULT_SETTINGS.toBuilder().build(),
+			applicationPreferences);
+	}
+
+	/**
+	 * Converts the given key of a setting to the name of the environment variable that overrides
+	 * it, for instance <code>intervalOfMovement</code> to
+	 * <code>SILENT_MOUSE_INTERVAL_OF_MOVEMENT</code>
+	 *
+	 * @param key
+	 *            the key of the setting
+	 * @return the name of the environment variable
+	 */
+	public static String toEnvironmentVariableName(final String key)
+	{
+		return ENVIRONMENT_PREFIX
+			+ key.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
 	}
 
 	/**
@@ -122,29 +201,18 @@ public class SettingsExtensions
 			modelObject.setYAxis(Integer.valueOf(yAxisAsString));
 		}
 
-		String intervalOfSecondsAsString = applicationPreferences
-			.get(SettingsExtensions.INTERVAL_OF_SECONDS, NOT_SET);
-		if (NOT_SET.equals(intervalOfSecondsAsString))
-		{
-			applicationPreferences.put(SettingsExtensions.INTERVAL_OF_SECONDS, "180");
-		}
-		else
-		{
-			modelObject.setIntervalOfSeconds(Integer.valueOf(intervalOfSecondsAsString));
-		}
+		modelObject.setIntervalOfMovement(getDuration(applicationPreferences,
+			SettingsExtensions.INTERVAL_OF_MOVEMENT, SettingsExtensions.INTERVAL_OF_SECONDS,
+			DEFAULT_SETTINGS.getIntervalOfMovement()));
 
-		String intervalOfMouseMovementsCheckInSecondsAsString = applicationPreferences
-			.get(SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK_IN_SECONDS, NOT_SET);
-		if (NOT_SET.equals(intervalOfMouseMovementsCheckInSecondsAsString))
-		{
-			applicationPreferences
-				.put(SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK_IN_SECONDS, "90");
-		}
-		else
-		{
-			modelObject.setIntervalOfMouseMovementsCheckInSeconds(
-				Integer.valueOf(intervalOfMouseMovementsCheckInSecondsAsString));
-		}
+		modelObject.setIntervalOfMouseMovementsCheck(getDuration(applicationPreferences,
+			SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+			SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK_IN_SECONDS,
+			DEFAULT_SETTINGS.getIntervalOfMouseMovementsCheck()));
+
+		modelObject.setMaxIntervalOfMouseMovementsCheck(getDuration(applicationPreferences,
+			SettingsExtensions.MAX_INTERVAL_OF_MOUSE_MOVEMENTS_CHECK, null,
+			DEFAULT_SETTINGS.getMaxIntervalOfMouseMovementsCheck()));
 
 		String moveOnStartupAsString = applicationPreferences
 			.get(SettingsExtensions.MOVE_ON_STARTUP, NOT_SET);
@@ -169,6 +237,226 @@ public class SettingsExtensions
 			SystemTrayType systemTrayType = SystemTrayType.valueOf(systemTrayTypeAsString);
 			modelObject.setSystemTrayType(systemTrayType);
 		}
+		String executionModeAsString = applicationPreferences
+			.get(SettingsExtensions.EXECUTION_MODE, NOT_SET);
+		if (NOT_SET.equals(executionModeAsString))
+		{
+			applicationPreferences.put(SettingsExtensions.EXECUTION_MODE,
+				ExecutionMode.PLATFORM.name());
+		}
+		else
+		{
+			ExecutionMode executionMode = ExecutionMode.valueOf(executionModeAsString);
+			modelObject.setExecutionMode(executionMode);
+		}
 		return modelObject;
 	}
+
+	/**
+	 * Sets the setting with the given key of the given model to the given value. The keys are the
+	 * same as in the preferences, durations are parsed with {@link #toDuration(String)} and a
+	 * plain number is read as seconds
+	 *
+	 * @param modelObject
+	 *            the model object
+	 * @param key
+	 *            the key of the setting
+	 * @param value
+	 *            the new value as string
+	 * @throws IllegalArgumentException
+	 *             if the key is unknown or the value is invalid
+	 */
+	public static void setValue(final SettingsModelBean modelObject, final String key,
+		final String value)
+	{
+		final String trimmedValue = value.trim();
+		switch (key)
+		{
+			case X_AXIS :
+				modelObject.setXAxis(Integer.valueOf(trimmedValue));
+				break;
+			case Y_AXIS :
+				modelObject.setYAxis(Integer.valueOf(trimmedValue));
+				break;
+			case INTERVAL_OF_MOVEMENT :
+				modelObject.setIntervalOfMovement(toInterval(key, trimmedValue));
+				break;
+			case INTERVAL_OF_MOUSE_MOVEMENTS_CHECK :
+				modelObject.setIntervalOfMouseMovementsCheck(toInterval(key, trimmedValue));
+				break;
+			case MAX_INTERVAL_OF_MOUSE_MOVEMENTS_CHECK :
+				modelObject
+					.setMaxIntervalOfMouseMovementsCheck(toInterval(key, trimmedValue));
+				break;
+			case MOVE_ON_STARTUP :
+				modelObject.setMoveOnStartup(Boolean.parseBoolean(trimmedValue));
+				break;
+			case SYSTEM_TRAY_TYPE :
+				modelObject.setSystemTrayType(SystemTrayType.valueOf(trimmedValue.toUpperCase()));
+				break;
+			case EXECUTION_MODE :
+				modelObject.setExecutionMode(ExecutionMode.valueOf(trimmedValue.toUpperCase()));
+				break;
+			default :
+				throw new IllegalArgumentException("Unknown setting '" + key + "'");
+		}
+	}
+
+	/**
+	 * Converts the given string of the interval setting with the given key to a {@link Duration}
+	 * in the range from {@link SettingsSnapshot#MINIMUM_INTERVAL} to
+	 * {@link SettingsSnapshot#MAXIMUM_INTERVAL}. A plain number is read as seconds
+	 *
+	 * @param key
+	 *            the key of the setting
+	 * @param value
+	 *            the string to convert
+	 * @return the {@link Duration} object
+	 * @throws IllegalArgumentException
+	 *             if the value is no duration or out of range
+	 */
+	public static Duration toInterval(final String key, final String value)
+	{
+		return toInterval(key, value, ChronoUnit.SECONDS);
+	}
+
+	/**
+	 * Converts the given string of the interval setting with the given key to a {@link Duration}
+	 * in the range from {@link SettingsSnapshot#MINIMUM_INTERVAL} to
+	 * {@link SettingsSnapshot#MAXIMUM_INTERVAL}
+	 *
+	 * @param key
+	 *            the key of the setting
+	 * @param value
+	 *            the string to convert
+	 * @param defaultUnit
+	 *            the unit of a plain number
+	 * @return the {@link Duration} object
+	 * @throws IllegalArgumentException
+	 *             if the value is no duration or out of range
+	 */
+	public static Duration toInterval(final String key, final String value,
+		final ChronoUnit defaultUnit)
+	{
+		final Duration duration;
+		try
+		{
+			duration = toDuration(value, defaultUnit);
+		}
+		catch (DateTimeParseException | ArithmeticException ex)
+		{
+			throw new IllegalArgumentException(
+				"Setting '" + key + "' is no valid duration: " + value, ex);
+		}
+		if (duration.compareTo(SettingsSnapshot.MINIMUM_INTERVAL) < 0
+			|| duration.compareTo(SettingsSnapshot.MAXIMUM_INTERVAL) > 0)
+		{
+			throw new IllegalArgumentException("Setting '" + key + "' must be between "
+				+ SettingsSnapshot.MINIMUM_INTERVAL + " and " + SettingsSnapshot.MAXIMUM_INTERVAL
+				+ " but was " + value);
+		}
+		return duration;
+	}
+
+	/**
+	 * Gets the duration with the given key from the given preferences. If the key is not set the
+	 * value of the given legacy key in whole seconds is migrated, if that is not set either the
+	 * given default value is stored
+	 *
+	 * @param applicationPreferences
+	 *            the application preferences
+	 * @param key
+	 *            the key of the duration
+	 * @param legacySecondsKey
+	 *            the legacy key of the value in whole seconds or null if there is none
+	 * @param defaultValue
+	 *            the default value
+	 * @return the duration
+	 */
+	private static Duration getDuration(final Preferences applicationPreferences,
+		final String key, final String legacySecondsKey, final Duration defaultValue)
+	{
+		String durationAsString = applicationPreferences.get(key, NOT_SET);
+		if (!NOT_SET.equals(durationAsString))
+		{
+			return toDuration(durationAsString);
+		}
+		Duration duration = defaultValue;
+		if (legacySecondsKey != null)
+		{
+			String secondsAsString = applicationPreferences.get(legacySecondsKey, NOT_SET);
+			if (!NOT_SET.equals(secondsAsString))
+			{
+				duration = Duration.ofSeconds(Long.parseLong(secondsAsString.trim()));
+			}
+		}
+		applicationPreferences.put(key, duration.toString());
+		return duration;
+	}
+
+	/**
+	 * Converts the given string to a {@link Duration}. The string can be an ISO-8601 duration like
+	 * <code>PT1M30S</code>, a number with one of the units <code>ms</code>, <code>s</code>,
+	 * <code>m</code>, <code>h</code> or <code>d</code> like <code>500ms</code> or
+	 * <code>180s</code>, or a plain number of seconds like <code>180</code>
+	 *
+	 * @param value
+	 *            the string to convert
+	 * @return the {@link Duration} object
+	 * @throws java.time.format.DateTimeParseException
+	 *             if the ISO-8601 duration cannot be parsed
+	 * @throws NumberFormatException
+	 *             if the number cannot be parsed or the unit is unknown
+	 */
+	public static Duration toDuration(final String value)
+	{
+		return toDuration(value, ChronoUnit.SECONDS);
+	}
+
+	/**
+	 * Converts the given string to a {@link Duration} like {@link #toDuration(String)}, a plain
+	 * number is read in the given unit
+	 *
+	 * @param value
+	 *            the string to convert
+	 * @param defaultUnit
+	 *            the unit of a plain number
+	 * @return the {@link Duration} object
+	 * @throws java.time.format.DateTimeParseException
+	 *             if the ISO-8601 duration cannot be parsed
+	 * @throws NumberFormatException
+	 *             if the number cannot be parsed or the unit is unknown
+	 */
+	public static Duration toDuration(final String value, final ChronoUnit defaultUnit)
+	{
+		final String trimmedValue = value.trim();
+		if (trimmedValue.startsWith("P") || trimmedValue.startsWith("p"))
+		{
+			return Duration.parse(trimmedValue);
+		}
+		int unitStart = trimmedValue.length();
+		while (0 < unitStart && Character.isLetter(trimmedValue.charAt(unitStart - 1)))
+		{
+			unitStart--;
+		}
+		final long amount = Long.parseLong(trimmedValue.substring(0, unitStart).trim());
+		final String unit = trimmedValue.substring(unitStart).toLowerCase(Locale.ROOT);
+		switch (unit)
+		{
+			case "" :
+				return Duration.of(amount, defaultUnit);
+			case "ms" :
+				return Duration.ofMillis(amount);
+			case "s" :
+				return Duration.ofSeconds(amount);
+			case "m" :
+				return Duration.ofMinutes(amount);
+			case "h" :
+				return Duration.ofHours(amount);
+			case "d" :
+				return Duration.ofDays(amount);
+			default :
+				throw new NumberFormatException("Unknown unit '" + unit + "' in " + value);
+		}
+	}
 }
@@ -0,0 +1,169 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.frame;
+
+import java.util.prefs.Preferences;
+
+import io.github.astrapi69.model.BaseModel;
+import io.github.astrapi69.silent.mouse.extension.SettingsExtensions;
+import io.github.astrapi69.silent.mouse.journal.ActivityJournal;
+import io.github.astrapi69.silent.mouse.metrics.MouseMovementManagerJmx;
+import io.github.astrapi69.silent.mouse.metrics.StartupTrace;
+import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.panel.MouseMoveSettingsPanel;
+import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
+import io.github.astrapi69.silent.mouse.store.SettingsStore;
+import io.github.astrapi69.silent.mouse.system.tray.DorkboxSystemTrayHandler;
+import io.github.astrapi69.silent.mouse.system.tray.JavaSystemTrayHandler;
+import io.github.astrapi69.silent.mouse.system.tray.SystemTrayHandler;
+import io.github.astrapi69.silent.mouse.system.tray.SystemTrayType;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link SystemTrayApplication} is the standalone application in the system tray. It
+ * loads the settings, creates the {@link MouseMovementManager} and sets up the system tray without
+ * any window. The settings panel and the {@link SystemTrayApplicationFrame} are created on first
+ * use, so they do not delay the start of the tray
+ */
+@Log
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SystemTrayApplication
+{
+
+	/**
+	 * The first created instance of {@link SystemTrayApplication}, the main frame belongs to it
+	 */
+	@Getter
+	private static SystemTrayApplication instance;
+
+	/** Preferences object to store and retrieve user settings */
+	final Preferences applicationPreferences;
+
+	/** Model bean containing the settings for mouse movements */
+	final SettingsModelBean settingsModelBean;
+
+	/** The manager class for handle the mouse movement */
+	final MouseMovementManager mouseMovementManager;
+
+	/** Write-behind store for the settings changes, flushed off the event dispatch thread */
+	final SettingsStore settingsStore;
+
+	/** The manager class for handle the system tray */
+	final SystemTrayHandler systemTrayHandler;
+
+	/** Panel for configuring the mouse movement settings, created on first use */
+	@Getter(AccessLevel.NONE)
+	MouseMoveSettingsPanel mouseMoveSettingsPanel;
+
+	/** The main frame of the application, created on first use */
+	@Getter(AccessLevel.NONE)
+	SystemTrayApplicationFrame frame;
+
+	/**
+	 * Instantiates a new {@link SystemTrayApplication} and sets up the system tray
+	 */
+	public SystemTrayApplication()
+	{
+		if (instance == null)
+		{
+			instance = this;
+		}
+		try (StartupTrace.Phase phase = StartupTrace.begin("preferences"))
+		{
+			applicationPreferences = SettingsExtensions.getApplicationPreferences();
+			settingsModelBean = SettingsExtensions.setModelFromPreferences(applicationPreferences);
+		}
+		mouseMovementManager = newMouseMovementManager(settingsModelBean);
+		settingsStore = new SettingsStore(applicationPreferences,
+			mouseMovementManager.getExecutionEngine());
+		Runtime.getRuntime().addShutdownHook(new Thread(settingsStore::close));
+		MouseMovementManagerJmx.register(mouseMovementManager);
+		final ActivityJournal activityJournal = ActivityJournal
+			.openIfEnabled(mouseMovementManager);
+		if (activityJournal != null)
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(activityJournal::close));
+		}
+		if (settingsModelBean.getSystemTrayType().equals(SystemTrayType.DORKBOX))
+		{
+			systemTrayHandler = new DorkboxSystemTrayHandler(mouseMovementManager);
+		}
+		else
+		{
+			systemTrayHandler = new JavaSystemTrayHandler(mouseMovementManager);
+		}
+		systemTrayHandler.initialize(this, settingsModelBean);
+	}
+
+	/**
+	 * Factory method for create a new {@link MouseMovementManager} object. It is called while the
+	 * application is constructed, so an override must not access fields of its subclass
+	 *
+	 * @param settingsModelBean
+	 *            the settings of the manager
+	 * @return the new {@link MouseMovementManager} object
+	 */
+	protected MouseMovementManager newMouseMovementManager(
+		final SettingsModelBean settingsModelBean)
+	{
+		return new MouseMovementManager(settingsModelBean);
+	}
+
+	/**
+	 * Gets the panel for configuring the mouse movement settings. The panel is created on first
+	 * use, so it does not delay the start of the tray. It edits a copy of the current settings
+	 *
+	 * @return the panel for configuring the mouse movement settings
+	 */
+	public MouseMoveSettingsPanel getMouseMoveSettingsPanel()
+	{
+		if (mouseMoveSettingsPanel == null)
+		{
+			mouseMoveSettingsPanel = new MouseMoveSettingsPanel(
+				BaseModel.of(mouseMovementManager.getSettings().toSettingsModelBean()));
+		}
+		return mouseMoveSettingsPanel;
+	}
+
+	/**
+	 * Gets the main frame of the application. The frame with its content and menus is created on
+	 * first use, the system tray does not need it
+	 *
+	 * @return the main frame of the application
+	 */
+	public SystemTrayApplicationFrame getFrame()
+	{
+		if (frame == null)
+		{
+			frame = new SystemTrayApplicationFrame();
+		}
+		return frame;
+	}
+
+}
@@ -24,20 +24,10 @@
  */
 package io.github.astrapi69.silent.mouse.frame;
 
-import java.util.prefs.Preferences;
-
 import io.github.astrapi69.model.BaseModel;
-import io.github.astrapi69.silent.mouse.extension.SettingsExtensions;
 import io.github.astrapi69.silent.mouse.i18n.Messages;
 import io.github.astrapi69.silent.mouse.model.ApplicationModelBean;
-import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
 import io.github.astrapi69.silent.mouse.panel.ApplicationPanel;
-import io.github.astrapi69.silent.mouse.panel.MouseMoveSettingsPanel;
-import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
-import io.github.astrapi69.silent.mouse.system.tray.DorkboxSystemTrayHandler;
-import io.github.astrapi69.silent.mouse.system.tray.JavaSystemTrayHandler;
-import io.github.astrapi69.silent.mouse.system.tray.SystemTrayHandler;
-import io.github.astrapi69.silent.mouse.system.tray.SystemTrayType;
 import io.github.astrapi69.swing.base.ApplicationPanelFrame;
 import io.github.astrapi69.swing.base.BasePanel;
 import lombok.AccessLevel;
@@ -47,7 +37,8 @@ import lombok.extern.java.Log;
 
 /**
  * The class {@link SystemTrayApplicationFrame} represents the main frame of the application that
- * sets up and initializes the application window with specific settings and components
+ * sets up and initializes the application window with specific settings and components. It is
+ * created on first use by the {@link SystemTrayApplication}, the system tray does not need it
  */
 @Log
 @Getter
@@ -55,33 +46,15 @@ import lombok.extern.java.Log;
 public class SystemTrayApplicationFrame extends ApplicationPanelFrame<ApplicationModelBean>
 {
 
-	/**
-	 * The single instance of {@link SystemTrayApplicationFrame}
-	 */
-	@Getter
-	private static SystemTrayApplicationFrame instance;
-
-	/** The manager class for handle the system tray */
-	SystemTrayHandler systemTrayHandler;
+	/** The application that shows this frame */
+	SystemTrayApplication application;
 
 	/** The main application panel */
 	ApplicationPanel applicationPanel;
 
-	/** Preferences object to store and retrieve user settings */
-	Preferences applicationPreferences;
-
-	/** Model bean containing the settings for mouse movements */
-	SettingsModelBean settingsModelBean;
-
-	/** Panel for configuring the mouse movement settings */
-	MouseMoveSettingsPanel mouseMoveSettingsPanel;
-
-	/** The manager class for handle the mouse movement */
-	MouseMovementManager mouseMovementManager;
-
 	/**
 	 * Constructs a new {@link SystemTrayApplicationFrame} with the specified title from the
-	 * resource bundle
+	 * resource bundle for the current {@link SystemTrayApplication}
 	 */
 	public SystemTrayApplicationFrame()
 	{
@@ -94,43 +67,14 @@ public class SystemTrayApplicationFrame extends ApplicationPanelFrame<Applicatio
 	@Override
 	protected void onBeforeInitialize()
 	{
-		if (instance == null)
-		{
-			instance = this;
-		}
-		// initialize model and model object
-		applicationPreferences = Preferences.userRoot()
-			.node(SystemTrayApplicationFrame.class.getName());
-
-		settingsModelBean = SettingsExtensions.setModelFromPreferences(applicationPreferences);
+		application = SystemTrayApplication.getInstance();
 		ApplicationModelBean applicationModelBean = ApplicationModelBean.builder()
-			.settingsModelBean(settingsModelBean).title(Messages.getString("mainframe.title"))
-			.build();
+			.settingsModelBean(application.getSettingsModelBean())
+			.title(Messages.getString("mainframe.title")).build();
 		setModel(BaseModel.of(applicationModelBean));
-
-		mouseMovementManager = new MouseMovementManager(settingsModelBean);
-		if (getSettingsModelBean().getSystemTrayType().equals(SystemTrayType.DORKBOX))
-		{
-			systemTrayHandler = new DorkboxSystemTrayHandler(mouseMovementManager);
-		}
-		else
-		{
-			systemTrayHandler = new JavaSystemTrayHandler(mouseMovementManager);
-		}
-		systemTrayHandler.initialize(this, settingsModelBean);
 		super.onBeforeInitialize();
 	}
 
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void onInitializeComponents()
-	{
-		super.onInitializeComponents();
-		mouseMoveSettingsPanel = new MouseMoveSettingsPanel(BaseModel.of(settingsModelBean));
-	}
-
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,659 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
+import io.github.astrapi69.silent.mouse.track.MouseActivityListener;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link ActivityJournal} is an append-only journal of the samples and nudges of a
+ * {@link MouseMovementManager}. The journal is a directory of segment files of a fixed size that
+ * are memory mapped, so appending an event is a write into the page cache without any system
+ * call. When a segment is full the next one is created and the oldest segments beyond the maximum
+ * count are deleted, so the journal never grows beyond <code>segmentSize * maxSegments</code>
+ * bytes.<br>
+ * <br>
+ * Every record is one tag byte followed by the differences of the timestamp and the coordinates
+ * to the previous record as zigzag encoded varints. A sample every 90 seconds takes about six
+ * bytes, so the default four segments of one MB hold the history of months. Every segment and
+ * every opening of the journal starts with an anchor record with the absolute values. The tag of
+ * a record is written after its payload, so a record torn by a crash reads as the end of the
+ * segment
+ */
+@Log
+public class ActivityJournal implements MouseActivityListener, Closeable
+{
+
+	/** The system property that enables the journal in the given directory */
+	public static final String DIRECTORY_PROPERTY = "silent.mouse.journal.dir";
+
+	/** The default size of a segment in bytes */
+	public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+	/** The default count of segments that are kept */
+	public static final int DEFAULT_MAX_SEGMENTS = 4;
+
+	/** The magic number at the start of every segment, <code>SMJ1</code> in ASCII */
+	static final int MAGIC = 0x534D4A31;
+
+	/** The size of the segment header, the magic number and a reserved int */
+	static final int HEADER_SIZE = 8;
+
+	/** The tag that marks the end of the records of a segment */
+	static final byte END = 0;
+
+	/** The tag of a record with absolute values */
+	static final byte ANCHOR = 1;
+
+	/** The tag of a sample without user activity */
+	static final byte IDLE_SAMPLE = 2;
+
+	/** The tag of a sample with user activity */
+	static final byte ACTIVE_SAMPLE = 3;
+
+	/** The tag of a nudge */
+	static final byte NUDGE = 4;
+
+	/** The maximum size of one record, the tag and three varints of up to ten bytes */
+	private static final int MAX_RECORD_SIZE = 1 + 3 * 10;
+
+	/** The prefix of the names of the segment files */
+	private static final String SEGMENT_PREFIX = "activity-";
+
+	/** The suffix of the names of the segment files */
+	private static final String SEGMENT_SUFFIX = ".journal";
+
+	/** The directory of the segment files */
+	@Getter
+	private final Path directory;
+
+	/** The size of a new segment in bytes */
+	private final int segmentSize;
+
+	/** The count of segments that are kept */
+	private final int maxSegments;
+
+	/** The number of the current segment */
+	@Getter
+	private long segmentNumber;
+
+	/** The number of the segment that was current when the journal was opened */
+	private final long openedSegmentNumber;
+
+	/** The end of the records of the segment that was current when the journal was opened */
+	private final int openedEnd;
+
+	/** The mapped current segment, positioned at the end of its records */
+	private MappedByteBuffer segment;
+
+	/** Flag that indicates if an anchor was written since the current segment was opened */
+	private boolean anchored;
+
+	/** The timestamp of the previous record */
+	private long previousTimestamp;
+
+	/** The x coordinate of the previous record */
+	private long previousX;
+
+	/** The y coordinate of the previous record */
+	private long previousY;
+
+	/** Flag that indicates if the journal is closed */
+	private boolean closed;
+
+	/**
+	 * Instantiates a new {@link ActivityJournal} in the given directory with the default segment
+	 * size and count. Appending continues in the last existing segment
+	 *
+	 * @param directory
+	 *            the directory of the segment files, it is created if it does not exist
+	 * @throws IOException
+	 *             if the directory or the current segment can not be opened
+	 */
+	public ActivityJournal(final Path directory) throws IOException
+	{
+		this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_SEGMENTS);
+	}
+
+	/**
+	 * Instantiates a new {@link ActivityJournal} in the given directory. Appending continues in
+	 * the last existing segment
+	 *
+	 * @param directory
+	 *            the directory of the segment files, it is created if it does not exist
+	 * @param segmentSize
+	 *            the size of a new segment in bytes
+	 * @param maxSegments
+	 *            the count of segments that are kept
+	 * @throws IOException
+	 *             if the directory or the current segment can not be opened
+	 */
+	public ActivityJournal(final Path directory, final int segmentSize, final int maxSegments)
+		throws IOException
+	{
+		if (segmentSize < HEADER_SIZE + 2 * MAX_RECORD_SIZE || maxSegments < 1)
+		{
+			throw new IllegalArgumentException("Invalid segment size " + segmentSize
+				+ " or segment count " + maxSegments);
+		}
+		this.directory = directory.toAbsolutePath();
+		this.segmentSize = segmentSize;
+		this.maxSegments = maxSegments;
+		Files.createDirectories(this.directory);
+		final List<Long> segmentNumbers = listSegmentNumbers(this.directory);
+		segmentNumber = segmentNumbers.isEmpty()
+			? 1
+			: segmentNumbers.get(segmentNumbers.size() - 1);
+		openSegment();
+		openedSegmentNumber = segmentNumber;
+		openedEnd = segment.position();
+		deleteOldSegments();
+	}
+
+	/**
+	 * Opens a new {@link ActivityJournal} for the given manager if the system property
+	 * {@value #DIRECTORY_PROPERTY} is set and adds it as listener to the manager. The records that
+	 * were written before are loaded in the background into the activity history of the manager,
+	 * whose queries wait for the load. A failure is logged and does not affect the manager
+	 *
+	 * @param mouseMovementManager
+	 *            the manager whose samples and nudges are journaled
+	 * @return the opened journal or null if the journal is disabled or could not be opened
+	 */
+	public static ActivityJournal openIfEnabled(final MouseMovementManager mouseMovementManager)
+	{
+		final String directory = System.getProperty(DIRECTORY_PROPERTY);
+		if (directory == null || directory.isBlank())
+		{
+			return null;
+		}
+		try
+		{
+			final ActivityJournal activityJournal = new ActivityJournal(Path.of(directory.trim()));
+			mouseMovementManager.addActivityListener(activityJournal);
+			mouseMovementManager.getActivityHistory().load(activityJournal::replayOpened);
+			log.info("Journaling the activity to " + activityJournal.getDirectory());
+			return activityJournal;
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			log.warning("Activity journal in " + directory + " could not be opened: "
+				+ ex.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Replays all records of the journal in the given directory in the order they were written
+	 *
+	 * @param directory
+	 *            the directory of the segment files
+	 * @param activityListener
+	 *            the listener that receives the samples and nudges
+	 * @throws IOException
+	 *             if a segment can not be read
+	 */
+	public static void replay(final Path directory, final MouseActivityListener activityListener)
+		throws IOException
+	{
+		replay(directory, activityListener, Long.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Replays the records that were written before this journal was opened in the order they were
+	 * written. The records that are appended since are not replayed, so the replay can run
+	 * concurrently to the appending. A failure is logged
+	 *
+	 * @param activityListener
+	 *            the listener that receives the samples and nudges
+	 */
+	public void replayOpened(final MouseActivityListener activityListener)
+	{
+		final long begin = System.nanoTime();
+		try
+		{
+			replay(directory, activityListener, openedSegmentNumber, openedEnd);
+			log.fine("Activity journal replayed in "
+				+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) + " ms");
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			log.warning("Activity journal in " + directory + " could not be replayed: "
+				+ ex.getMessage());
+		}
+	}
+
+	/**
+	 * Replays the records of the journal in the given directory in the order they were written up
+	 * to the given end of the given last segment
+	 *
+	 * @param directory
+	 *            the directory of the segment files
+	 * @param activityListener
+	 *            the listener that receives the samples and nudges
+	 * @param lastSegmentNumber
+	 *            the number of the last segment that is replayed
+	 * @param lastEnd
+	 *            the end of the records that are replayed of the last segment
+	 * @throws IOException
+	 *             if a segment can not be read
+	 */
+	private static void replay(final Path directory, final MouseActivityListener activityListener,
+		final long lastSegmentNumber, final int lastEnd) throws IOException
+	{
+		for (final long number : listSegmentNumbers(directory))
+		{
+			if (lastSegmentNumber < number)
+			{
+				break;
+			}
+			try (FileChannel channel = FileChannel.open(getSegmentFile(directory, number),
+				StandardOpenOption.READ))
+			{
+				final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+				if (number == lastSegmentNumber)
+				{
+					buffer.limit(Math.min(buffer.limit(), lastEnd));
+				}
+				if (HEADER_SIZE <= buffer.limit() && buffer.getInt(0) == MAGIC)
+				{
+					decode(buffer, activityListener);
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void onSample(final long timestamp, final int x, final int y,
+		final boolean active)
+	{
+		append(active ? ACTIVE_SAMPLE : IDLE_SAMPLE, timestamp, x, y);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void onNudge(final long timestamp, final int x, final int y)
+	{
+		append(NUDGE, timestamp, x, y);
+	}
+
+	/**
+	 * Writes the mapped current segment to the storage device
+	 */
+	public synchronized void flush()
+	{
+		if (!closed)
+		{
+			segment.force();
+		}
+	}
+
+	/**
+	 * Writes the mapped current segment to the storage device and stops journaling
+	 */
+	@Override
+	public synchronized void close()
+	{
+		flush();
+		closed = true;
+	}
+
+	/**
+	 * Appends a record with the differences to the previous record, preceded by an anchor if the
+	 * current segment has none yet. A failure is logged and closes the journal
+	 *
+	 * @param tag
+	 *            the tag of the record
+	 * @param timestamp
+	 *            the timestamp of the event
+	 * @param x
+	 *            the x coordinate of the event
+	 * @param y
+	 *            the y coordinate of the event
+	 */
+	private void append(final byte tag, final long timestamp, final int x, final int y)
+	{
+		if (closed)
+		{
+			return;
+		}
+		try
+		{
+			if (segment.remaining() < 2 * MAX_RECORD_SIZE)
+			{
+				rollOver();
+			}
+			if (!anchored)
+			{
+				putRecord(ANCHOR, timestamp, x, y);
+				previousTimestamp = timestamp;
+				previousX = x;
+				previousY = y;
+				anchored = true;
+			}
+			putRecord(tag, timestamp - previousTimestamp, x - previousX, y - previousY);
+			previousTimestamp = timestamp;
+			previousX = x;
+			previousY = y;
+		}
+		catch (IOException ex)
+		{
+			log.warning("Activity journal in " + directory + " failed and is closed: "
+				+ ex.getMessage());
+			closed = true;
+		}
+	}
+
+	/**
+	 * Writes a record at the current position. The tag is written after the payload, so a record
+	 * that is torn by a crash is not visible
+	 *
+	 * @param tag
+	 *            the tag of the record
+	 * @param timestamp
+	 *            the timestamp or the difference of the timestamps
+	 * @param x
+	 *            the x coordinate or the difference of the x coordinates
+	 * @param y
+	 *            the y coordinate or the difference of the y coordinates
+	 */
+	private void putRecord(final byte tag, final long timestamp, final long x, final long y)
+	{
+		final int position = segment.position();
+		segment.position(position + 1);
+		putVarLong(segment, zigzag(timestamp));
+		putVarLong(segment, zigzag(x));
+		putVarLong(segment, zigzag(y));
+		segment.put(position, tag);
+	}
+
+	/**
+	 * Writes the current segment to the storage device and continues in a new segment
+	 *
+	 * @throws IOException
+	 *             if the new segment can not be opened
+	 */
+	private void rollOver() throws IOException
+	{
+		segment.force();
+		segmentNumber++;
+		openSegment();
+		deleteOldSegments();
+		log.fine("Activity journal rolled over to segment " + segmentNumber);
+	}
+
+	/**
+	 * Maps the current segment, creates it if it does not exist and positions it at the end of its
+	 * records
+	 *
+	 * @throws IOException
+	 *             if the segment can not be mapped or is not a segment of an activity journal
+	 */
+	private void openSegment() throws IOException
+	{
+		final Path segmentFile = getSegmentFile(directory, segmentNumber);
+		try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.CREATE,
+			StandardOpenOption.READ, StandardOpenOption.WRITE))
+		{
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+				Math.max(channel.size(), segmentSize));
+		}
+		final int magic = segment.getInt(0);
+		if (magic == 0)
+		{
+			segment.putInt(0, MAGIC);
+		}
+		else if (magic != MAGIC)
+		{
+			throw new IOException(segmentFile + " is not a segment of an activity journal");
+		}
+		final int end = decode(segment, null);
+		// clear the payload of a record that was torn by a crash
+		for (int i = end; i < Math.min(end + MAX_RECORD_SIZE, segment.limit()); i++)
+		{
+			segment.put(i, END);
+		}
+		segment.position(end);
+		anchored = false;
+	}
+
+	/**
+	 * Deletes the segments beyond the maximum count. A segment that can not be deleted is logged
+	 * and deleted with the next roll over
+	 *
+	 * @throws IOException
+	 *             if the directory can not be listed
+	 */
+	private void deleteOldSegments() throws IOException
+	{
+		for (final long number : listSegmentNumbers(directory))
+		{
+			if (segmentNumber - maxSegments < number)
+			{
+				return;
+			}
+			try
+			{
+				Files.deleteIfExists(getSegmentFile(directory, number));
+			}
+			catch (IOException ex)
+			{
+				log.warning("Segment " + number + " of the activity journal in " + directory
+					+ " could not be deleted: " + ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Decodes the records of the given segment
+	 *
+	 * @param buffer
+	 *            the segment
+	 * @param activityListener
+	 *            the listener that receives the samples and nudges or null to only find the end
+	 * @return the position after the last complete record
+	 */
+	static int decode(final ByteBuffer buffer, final MouseActivityListener activityListener)
+	{
+		final ByteBuffer records = buffer.duplicate().position(HEADER_SIZE);
+		long timestamp = 0;
+		long x = 0;
+		long y = 0;
+		while (records.hasRemaining())
+		{
+			final int position = records.position();
+			final byte tag = records.get();
+			if (tag < ANCHOR || NUDGE < tag)
+			{
+				return position;
+			}
+			final long timestampValue;
+			final long xValue;
+			final long yValue;
+			try
+			{
+				timestampValue = unzigzag(getVarLong(records));
+				xValue = unzigzag(getVarLong(records));
+				yValue = unzigzag(getVarLong(records));
+			}
+			catch (BufferUnderflowException | IllegalStateException ex)
+			{
+				return position;
+			}
+			if (tag == ANCHOR)
+			{
+				timestamp = timestampValue;
+				x = xValue;
+				y = yValue;
+				continue;
+			}
+			timestamp += timestampValue;
+			x += xValue;
+			y += yValue;
+			if (activityListener != null)
+			{
+				if (tag == NUDGE)
+				{
+					activityListener.onNudge(timestamp, (int)x, (int)y);
+				}
+				else
+				{
+					activityListener.onSample(timestamp, (int)x, (int)y, tag == ACTIVE_SAMPLE);
+				}
+			}
+		}
+		return records.position();
+	}
+
+	/**
+	 * Lists the numbers of the segments in the given directory in ascending order
+	 *
+	 * @param directory
+	 *            the directory of the segment files
+	 * @return the numbers of the segments, empty if the directory does not exist
+	 * @throws IOException
+	 *             if the directory can not be listed
+	 */
+	private static List<Long> listSegmentNumbers(final Path directory) throws IOException
+	{
+		if (!Files.isDirectory(directory))
+		{
+			return List.of();
+		}
+		try (Stream<Path> files = Files.list(directory))
+		{
+			return files.map(file -> file.getFileName().toString())
+				.filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+				.map(name -> name.substring(SEGMENT_PREFIX.length(),
+					name.length() - SEGMENT_SUFFIX.length()))
+				.filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+				.map(Long::valueOf).sorted().toList();
+		}
+	}
+
+	/**
+	 * Gets the file of the segment with the given number
+	 *
+	 * @param directory
+	 *            the directory of the segment files
+	 * @param number
+	 *            the number of the segment
+	 * @return the file of the segment
+	 */
+	private static Path getSegmentFile(final Path directory, final long number)
+	{
+		return directory
+			.resolve(SEGMENT_PREFIX + String.format(Locale.ROOT, "%06d", number) + SEGMENT_SUFFIX);
+	}
+
+	/**
+	 * Writes the given value as varint, seven bits per byte starting with the lowest ones
+	 *
+	 * @param buffer
+	 *            the buffer to write to
+	 * @param value
+	 *            the value, interpreted as unsigned
+	 */
+	private static void putVarLong(final ByteBuffer buffer, final long value)
+	{
+		long remaining = value;
+		while ((remaining & ~0x7FL) != 0)
+		{
+			buffer.put((byte)((remaining & 0x7F) | 0x80));
+			remaining >>>= 7;
+		}
+		buffer.put((byte)remaining);
+	}
+
+	/**
+	 * Reads a varint
+	 *
+	 * @param buffer
+	 *            the buffer to read from
+	 * @return the value
+	 * @throws IllegalStateException
+	 *             if the varint is longer than ten bytes
+	 */
+	private static long getVarLong(final ByteBuffer buffer)
+	{
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7)
+		{
+			final byte current = buffer.get();
+			value |= (long)(current & 0x7F) << shift;
+			if (current >= 0)
+			{
+				return value;
+			}
+		}
+		throw new IllegalStateException("Malformed varint");
+	}
+
+	/**
+	 * Maps a signed value to an unsigned one, so small negative values get short varints
+	 *
+	 * @param value
+	 *            the signed value
+	 * @return the zigzag encoded value
+	 */
+	private static long zigzag(final long value)
+	{
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/**
+	 * Reverts {@link #zigzag(long)}
+	 *
+	 * @param value
+	 *            the zigzag encoded value
+	 * @return the signed value
+	 */
+	private static long unzigzag(final long value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,376 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.astrapi69.silent.mouse.engine.ExecutionEngine;
+import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link MetricsHttpServer} serves the metrics of a {@link MouseMovementManager} in the
+ * Prometheus text format on the loopback interface. It is built on the {@link HttpServer} of the
+ * JDK and runs on a single thread.<br>
+ * <br>
+ * A scrape renders into a reused character and byte buffer, so the response body is not
+ * reallocated on every scrape. Formatting the floating point values and copying the startup phases
+ * still allocate a little per scrape
+ */
+@Log
+public class MetricsHttpServer
+{
+
+	/** The system property that enables the endpoint with the given port */
+	public static final String PORT_PROPERTY = "silent.mouse.metrics.port";
+
+	/** The path the metrics are served at */
+	public static final String PATH = "/metrics";
+
+	/** The content type of the Prometheus text format */
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	/** The factor to convert nanoseconds to seconds */
+	private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+	/** The manager whose metrics are served */
+	private final MouseMovementManager mouseMovementManager;
+
+	/** The platform thread bean for the live thread count */
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	/** The reused buffer the metrics are rendered into */
+	private final StringBuilder text = new StringBuilder(2048);
+
+	/** The reused buffer the rendered metrics are encoded into */
+	private byte[] body = new byte[2048];
+
+	/** The underlying http server */
+	@Getter
+	private final HttpServer httpServer;
+
+	/**
+	 * Instantiates a new {@link MetricsHttpServer} bound to the given port of the loopback
+	 * interface. The server is not started
+	 *
+	 * @param mouseMovementManager
+	 *            the manager whose metrics are served
+	 * @param port
+	 *            the port, zero for an ephemeral port
+	 * @throws IOException
+	 *             if the server can not be bound
+	 */
+	public MetricsHttpServer(final MouseMovementManager mouseMovementManager, final int port)
+		throws IOException
+	{
+		this.mouseMovementManager = mouseMovementManager;
+		this.httpServer = HttpServer
+			.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.httpServer.createContext(PATH, this::handle);
+	}
+
+	/**
+	 * Starts a new {@link MetricsHttpServer} if the system property {@value #PORT_PROPERTY} is set.
+	 * A failure is logged and does not affect the manager
+	 *
+	 * @param mouseMovementManager
+	 *            the manager whose metrics are served
+	 * @return the started server or null if the endpoint is disabled or could not be started
+	 */
+	public static MetricsHttpServer startIfEnabled(final MouseMovementManager mouseMovementManager)
+	{
+		final String port = System.getProperty(PORT_PROPERTY);
+		if (port == null || port.isBlank())
+		{
+			return null;
+		}
+		try
+		{
+			final MetricsHttpServer metricsHttpServer = new MetricsHttpServer(
+				mouseMovementManager, Integer.parseInt(port.trim()));
+			metricsHttpServer.start();
+			return metricsHttpServer;
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			log.warning("Metrics endpoint on port " + port + " could not be started: "
+				+ ex.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Starts the server
+	 */
+	public void start()
+	{
+		httpServer.start();
+		log.info("Metrics endpoint started at http://"
+			+ httpServer.getAddress().getHostString() + ":" + httpServer.getAddress().getPort()
+			+ PATH);
+	}
+
+	/**
+	 * Stops the server without waiting for pending exchanges
+	 */
+	public void stop()
+	{
+		httpServer.stop(0);
+		log.info("Metrics endpoint stopped");
+	}
+
+	/**
+	 * Handles a scrape
+	 *
+	 * @param exchange
+	 *            the exchange of the scrape
+	 * @throws IOException
+	 *             if the response can not be written
+	 */
+	private void handle(final HttpExchange exchange) throws IOException
+	{
+		try (exchange)
+		{
+			if (!"GET".equals(exchange.getRequestMethod()))
+			{
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			synchronized (this)
+			{
+				final int length = render();
+				exchange.sendResponseHeaders(200, length);
+				try (OutputStream outputStream = exchange.getResponseBody())
+				{
+					outputStream.write(body, 0, length);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renders the metrics into the reused buffers. Must be called while holding the monitor of this
+	 * server
+	 *
+	 * @return the count of bytes in the body buffer
+	 */
+	private int render()
+	{
+		final MouseMovementMetrics metrics = mouseMovementManager.getMetrics();
+		final ExecutionEngine executionEngine = mouseMovementManager.getExecutionEngine();
+		final Runtime runtime = Runtime.getRuntime();
+		text.setLength(0);
+		counter("silent_mouse_samples_total", "Mouse position samples taken",
+			metrics.getSampleCount());
+		counter("silent_mouse_moves_total", "Nudges issued", metrics.getNudgeCount());
+		counter("silent_mouse_idle_transitions_total", "Transitions from active to idle",
+			metrics.getIdleTransitionCount());
+		counter("silent_mouse_active_transitions_total", "Transitions from idle to active",
+			metrics.getActiveTransitionCount());
+		counter("silent_mouse_idle_seconds_total", "Sum of all idle periods in seconds",
+			metrics.getTotalIdleDurationNanos() / NANOS_PER_SECOND);
+		gauge("silent_mouse_current_idle_seconds",
+			"Duration of the current idle period in seconds",
+			metrics.getCurrentIdleDurationNanos() / NANOS_PER_SECOND);
+		gauge("silent_mouse_running", "1 if the manager is running otherwise 0",
+			mouseMovementManager.isRunning() ? 1 : 0);
+		gauge("silent_mouse_idle", "1 if the user is idle otherwise 0",
+			metrics.getState() == MouseMovementState.IDLE ? 1 : 0);
+		gauge("silent_mouse_last_move_timestamp_seconds",
+			"Time of the last nudge in seconds since the epoch",
+			metrics.getLastMoveTimestamp() / 1000d);
+		header("silent_mouse_scheduler_lateness_seconds", "summary",
+			"Lateness of the timer wake-ups beyond their slack in seconds");
+		sample("silent_mouse_scheduler_lateness_seconds_sum",
+			metrics.getTotalWakeUpLatenessNanos() / NANOS_PER_SECOND);
+		sample("silent_mouse_scheduler_lateness_seconds_count", metrics.getWakeUpCount());
+		gauge("silent_mouse_scheduler_lateness_max_seconds",
+			"Maximum lateness of a timer wake-up in seconds",
+			metrics.getMaxWakeUpLatenessNanos() / NANOS_PER_SECOND);
+		counter("silent_mouse_settings_reloads_total", "Reloads of the settings file",
+			metrics.getSettingsReloadCount());
+		gauge("silent_mouse_settings_reload_latency_seconds",
+			"Latency of the last settings reload in seconds",
+			metrics.getLastSettingsReloadLatencyNanos() / NANOS_PER_SECOND);
+		gauge("silent_mouse_scheduler_threads", "Threads of the execution engine",
+			executionEngine.getThreadCount());
+		gauge("silent_mouse_scheduler_carrier_threads",
+			"Live carrier threads of the virtual thread scheduler",
+			ExecutionEngine.getCarrierThreadCount());
+		counter("silent_mouse_scheduler_wakeups_total",
+			"Wake-ups of the scheduler thread, coalesced tasks count once",
+			executionEngine.getWakeUpCount());
+		gauge("jvm_threads_live", "Live threads of the JVM", threadMXBean.getThreadCount());
+		gauge("jvm_memory_heap_used_bytes", "Used heap memory in bytes",
+			runtime.totalMemory() - runtime.freeMemory());
+		gauge("jvm_memory_heap_committed_bytes", "Committed heap memory in bytes",
+			runtime.totalMemory());
+		gauge("jvm_memory_heap_max_bytes", "Maximum heap memory in bytes", runtime.maxMemory());
+		header("silent_mouse_startup_phase_seconds", "gauge",
+			"Duration of the startup phases in seconds");
+		for (final StartupTrace.Phase phase : StartupTrace.getPhases())
+		{
+			text.append("silent_mouse_startup_phase_seconds{phase=\"").append(phase.getName())
+				.append("\"} ").append(phase.getDurationInNanos() / NANOS_PER_SECOND).append('\n');
+		}
+		return encode();
+	}
+
+	/**
+	 * Encodes the rendered text into the body buffer. The text contains only ASCII characters, so
+	 * every character is one byte
+	 *
+	 * @return the count of bytes in the body buffer
+	 */
+	private int encode()
+	{
+		final int length = text.length();
+		if (body.length < length)
+		{
+			body = new byte[Math.max(length, body.length * 2)];
+		}
+		for (int i = 0; i < length; i++)
+		{
+			body[i] = (byte)text.charAt(i);
+		}
+		return length;
+	}
+
+	/**
+	 * Renders a counter with the given integral value
+	 *
+	 * @param name
+	 *            the name of the metric
+	 * @param help
+	 *            the help text of the metric
+	 * @param value
+	 *            the value of the metric
+	 */
+	private void counter(final String name, final String help, final long value)
+	{
+		header(name, "counter", help);
+		sample(name, value);
+	}
+
+	/**
+	 * Renders a counter with the given floating point value
+	 *
+	 * @param name
+	 *            the name of the metric
+	 * @param help
+	 *            the help text of the metric
+	 * @param value
+	 *            the value of the metric
+	 */
+	private void counter(final String name, final String help, final double value)
+	{
+		header(name, "counter", help);
+		sample(name, value);
+	}
+
+	/**
+	 * Renders a gauge with the given integral value
+	 *
+	 * @param name
+	 *            the name of the metric
+	 * @param help
+	 *            the help text of the metric
+	 * @param value
+	 *            the value of the metric
+	 */
+	private void gauge(final String name, final String help, final long value)
+	{
+		header(name, "gauge", help);
+		sample(name, value);
+	}
+
+	/**
+	 * Renders a gauge with the given floating point value
+	 *
+	 * @param name
+	 *            the name of the metric
+	 * @param help
+	 *            the help text of the metric
+	 * @param value
+	 *            the value of the metric
+	 */
+	private void gauge(final String name, final String help, final double value)
+	{
+		header(name, "gauge", help);
+		sample(name, value);
+	}
+
+	/**
+	 * Renders the help and type lines of a metric
+	 *
+	 * @param name
+	 *            the name of the metric
+	 * @param type
+	 *            the type of the metric
+	 * @param help
+	 *            the help text of the metric
+	 */
+	private void header(final String name, final String type, final String help)
+	{
+		text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	/**
+	 * Renders a sample line with the given integral value
+	 *
+	 * @param name
+	 *            the name of the sample
+	 * @param value
+	 *            the value of the sample
+	 */
+	private void sample(final String name, final long value)
+	{
+		text.append(name).append(' ').append(value).append('\n');
+	}
+
+	/**
+	 * Renders a sample line with the given floating point value
+	 *
+	 * @param name
+	 *            the name of the sample
+	 * @param value
+	 *            the value of the sample
+	 */
+	private void sample(final String name, final double value)
+	{
+		text.append(name).append(' ').append(value).append('\n');
+	}
+}
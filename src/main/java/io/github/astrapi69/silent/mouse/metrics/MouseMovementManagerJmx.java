@@ -0,0 +1,262 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import io.github.astrapi69.silent.mouse.engine.ExecutionEngine;
+import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
+import io.github.astrapi69.silent.mouse.track.ActivityHistory;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link MouseMovementManagerJmx} exposes the {@link MouseMovementMetrics} and the
+ * {@link ExecutionEngine} of a {@link MouseMovementManager} as {@link MouseMovementManagerMXBean}
+ * on the platform {@link MBeanServer}
+ */
+@Log
+public class MouseMovementManagerJmx implements MouseMovementManagerMXBean
+{
+
+	/** The object name the MXBean is registered with */
+	public static final String OBJECT_NAME = "io.github.astrapi69.silent.mouse"
+		+ ":type=MouseMovementManager";
+
+	/** The manager that is exposed */
+	private final MouseMovementManager mouseMovementManager;
+
+	/**
+	 * Instantiates a new {@link MouseMovementManagerJmx} for the given manager
+	 *
+	 * @param mouseMovementManager
+	 *            the manager that is exposed
+	 */
+	public MouseMovementManagerJmx(final MouseMovementManager mouseMovementManager)
+	{
+		this.mouseMovementManager = mouseMovementManager;
+	}
+
+	/**
+	 * Registers a new {@link MouseMovementManagerJmx} for the given manager on the platform
+	 * {@link MBeanServer}. A previously registered MXBean is replaced. A failure is logged and
+	 * does not affect the manager
+	 *
+	 * @param mouseMovementManager
+	 *            the manager that is exposed
+	 * @return true if the MXBean was registered otherwise false
+	 */
+	public static boolean register(final MouseMovementManager mouseMovementManager)
+	{
+		try
+		{
+			final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			final ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (mBeanServer.isRegistered(objectName))
+			{
+				mBeanServer.unregisterMBean(objectName);
+			}
+			mBeanServer.registerMBean(new MouseMovementManagerJmx(mouseMovementManager),
+				objectName);
+			log.info("Registered MXBean " + OBJECT_NAME);
+			return true;
+		}
+		catch (JMException | RuntimeException ex)
+		{
+			log.log(Level.WARNING, "Registration of MXBean " + OBJECT_NAME + " failed", ex);
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the metrics of the exposed manager
+	 *
+	 * @return the metrics
+	 */
+	private MouseMovementMetrics getMetrics()
+	{
+		return mouseMovementManager.getMetrics();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSampleCount()
+	{
+		return getMetrics().getSampleCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getNudgeCount()
+	{
+		return getMetrics().getNudgeCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getIdleTransitionCount()
+	{
+		return getMetrics().getIdleTransitionCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getActiveTransitionCount()
+	{
+		return getMetrics().getActiveTransitionCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public MouseMovementState getState()
+	{
+		return getMetrics().getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getTotalIdleDurationNanos()
+	{
+		return getMetrics().getTotalIdleDurationNanos();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getLastMoveTimestamp()
+	{
+		return getMetrics().getLastMoveTimestamp();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getLastWakeUpLatenessNanos()
+	{
+		return getMetrics().getLastWakeUpLatenessNanos();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getMaxWakeUpLatenessNanos()
+	{
+		return getMetrics().getMaxWakeUpLatenessNanos();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getAverageWakeUpLatenessNanos()
+	{
+		final long wakeUpCount = getMetrics().getWakeUpCount();
+		return wakeUpCount == 0 ? 0 : getMetrics().getTotalWakeUpLatenessNanos() / wakeUpCount;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSettingsReloadCount()
+	{
+		return getMetrics().getSettingsReloadCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getLastSettingsReloadLatencyNanos()
+	{
+		return getMetrics().getLastSettingsReloadLatencyNanos();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getThreadCount()
+	{
+		return mouseMovementManager.getExecutionEngine().getThreadCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getCarrierThreadCount()
+	{
+		return ExecutionEngine.getCarrierThreadCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getExecutionMode()
+	{
+		return mouseMovementManager.getExecutionEngine().getExecutionMode().name();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getIdleMinutesToday()
+	{
+		return mouseMovementManager.getActivityHistory().getIdleMillis(
+			ActivityHistory.getStartOfToday(), System.currentTimeMillis()) / 60000;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getNudgesThisWeek()
+	{
+		return mouseMovementManager.getActivityHistory()
+			.getNudgeCount(ActivityHistory.getStartOfWeek(), System.currentTimeMillis());
+	}
+}
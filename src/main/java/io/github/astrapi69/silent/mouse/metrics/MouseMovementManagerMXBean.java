@@ -0,0 +1,153 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.metrics;
+
+/**
+ * The interface {@link MouseMovementManagerMXBean} is the management interface of the
+ * {@link io.github.astrapi69.silent.mouse.robot.MouseMovementManager}, so the service can be
+ * watched with standard JMX tools like JConsole or VisualVM
+ */
+public interface MouseMovementManagerMXBean
+{
+
+	/**
+	 * Gets the count of mouse position samples taken
+	 *
+	 * @return the count of samples
+	 */
+	long getSampleCount();
+
+	/**
+	 * Gets the count of nudges issued
+	 *
+	 * @return the count of nudges
+	 */
+	long getNudgeCount();
+
+	/**
+	 * Gets the count of transitions from active to idle
+	 *
+	 * @return the count of idle transitions
+	 */
+	long getIdleTransitionCount();
+
+	/**
+	 * Gets the count of transitions from idle to active
+	 *
+	 * @return the count of active transitions
+	 */
+	long getActiveTransitionCount();
+
+	/**
+	 * Gets the current state
+	 *
+	 * @return the current state
+	 */
+	MouseMovementState getState();
+
+	/**
+	 * Gets the sum of all idle periods including the current one
+	 *
+	 * @return the total idle duration in nanoseconds
+	 */
+	long getTotalIdleDurationNanos();
+
+	/**
+	 * Gets the timestamp of the last nudge
+	 *
+	 * @return the timestamp in milliseconds since the epoch, zero if no nudge was issued
+	 */
+	long getLastMoveTimestamp();
+
+	/**
+	 * Gets the lateness of the last timer wake-up
+	 *
+	 * @return the lateness in nanoseconds
+	 */
+	long getLastWakeUpLatenessNanos();
+
+	/**
+	 * Gets the maximum lateness of a timer wake-up
+	 *
+	 * @return the maximum lateness in nanoseconds
+	 */
+	long getMaxWakeUpLatenessNanos();
+
+	/**
+	 * Gets the average lateness of the timer wake-ups
+	 *
+	 * @return the average lateness in nanoseconds, zero if there was no wake-up
+	 */
+	long getAverageWakeUpLatenessNanos();
+
+	/**
+	 * Gets the count of settings reloads
+	 *
+	 * @return the count of settings reloads
+	 */
+	long getSettingsReloadCount();
+
+	/**
+	 * Gets the latency of the last settings reload
+	 *
+	 * @return the latency in nanoseconds, zero if the settings were never reloaded
+	 */
+	long getLastSettingsReloadLatencyNanos();
+
+	/**
+	 * Gets the count of threads of the execution engine
+	 *
+	 * @return the count of threads
+	 */
+	int getThreadCount();
+
+	/**
+	 * Gets the count of live carrier threads of the virtual thread scheduler
+	 *
+	 * @return the count of carrier threads
+	 */
+	int getCarrierThreadCount();
+
+	/**
+	 * Gets the execution mode of the execution engine
+	 *
+	 * @return the name of the execution mode
+	 */
+	String getExecutionMode();
+
+	/**
+	 * Gets the idle time of today from the activity history
+	 *
+	 * @return the idle time of today in minutes
+	 */
+	long getIdleMinutesToday();
+
+	/**
+	 * Gets the count of nudges of this week from the activity history
+	 *
+	 * @return the count of nudges of this week
+	 */
+	long getNudgesThisWeek();
+}
@@ -0,0 +1,322 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class {@link MouseMovementMetrics} collects the runtime metrics of a
+ * {@link io.github.astrapi69.silent.mouse.robot.MouseMovementManager}. The manager records from
+ * its scheduler thread, monitoring tools read from any thread. Recording does not allocate, so it
+ * can stay on the hot path of the detection cycle
+ */
+public class MouseMovementMetrics
+{
+
+	/** The count of mouse position samples taken */
+	private final AtomicLong sampleCount = new AtomicLong();
+
+	/** The count of nudges issued */
+	private final AtomicLong nudgeCount = new AtomicLong();
+
+	/** The count of transitions from active to idle */
+	private final AtomicLong idleTransitionCount = new AtomicLong();
+
+	/** The count of transitions from idle to active */
+	private final AtomicLong activeTransitionCount = new AtomicLong();
+
+	/** The count of timer wake-ups */
+	private final AtomicLong wakeUpCount = new AtomicLong();
+
+	/** The sum of the lateness of all timer wake-ups in nanoseconds */
+	private final AtomicLong totalWakeUpLateness = new AtomicLong();
+
+	/** The maximum lateness of a timer wake-up in nanoseconds */
+	private final AtomicLong maxWakeUpLateness = new AtomicLong();
+
+	/** The lateness of the last timer wake-up in nanoseconds */
+	private volatile long lastWakeUpLateness;
+
+	/** The timestamp of the last nudge in milliseconds since the epoch, zero if none was issued */
+	private volatile long lastMoveTimestamp;
+
+	/** The count of settings reloads */
+	private final AtomicLong settingsReloadCount = new AtomicLong();
+
+	/** The latency of the last settings reload in nanoseconds */
+	private volatile long lastSettingsReloadLatency;
+
+	/** The current state */
+	private volatile MouseMovementState state = MouseMovementState.STOPPED;
+
+	/** The sum of the finished idle periods in nanoseconds */
+	private final AtomicLong totalIdleDuration = new AtomicLong();
+
+	/** The start of the current idle period in the time base of {@link System#nanoTime()} */
+	private volatile long idleSince;
+
+	/**
+	 * Records the start of the manager, a started manager counts as active until the first idle
+	 * sample
+	 */
+	public void recordStart()
+	{
+		state = MouseMovementState.ACTIVE;
+	}
+
+	/**
+	 * Records the stop of the manager
+	 */
+	public void recordStop()
+	{
+		if (state == MouseMovementState.IDLE)
+		{
+			totalIdleDuration.addAndGet(System.nanoTime() - idleSince);
+		}
+		state = MouseMovementState.STOPPED;
+	}
+
+	/**
+	 * Records a mouse position sample
+	 *
+	 * @param active
+	 *            true if the sample shows user activity otherwise false
+	 */
+	public void recordSample(final boolean active)
+	{
+		sampleCount.incrementAndGet();
+		recordActivity(active);
+	}
+
+	/**
+	 * Records the user activity detected by the manager and counts the transitions between active
+	 * and idle
+	 *
+	 * @param active
+	 *            true if user activity was detected otherwise false
+	 */
+	public void recordActivity(final boolean active)
+	{
+		final MouseMovementState current = state;
+		if (current == MouseMovementState.STOPPED)
+		{
+			return;
+		}
+		if (active && current == MouseMovementState.IDLE)
+		{
+			totalIdleDuration.addAndGet(System.nanoTime() - idleSince);
+			state = MouseMovementState.ACTIVE;
+			activeTransitionCount.incrementAndGet();
+		}
+		else if (!active && current == MouseMovementState.ACTIVE)
+		{
+			idleSince = System.nanoTime();
+			state = MouseMovementState.IDLE;
+			idleTransitionCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Records a nudge of the mouse
+	 *
+	 * @param timestamp
+	 *            the timestamp of the nudge in milliseconds since the epoch
+	 */
+	public void recordNudge(final long timestamp)
+	{
+		nudgeCount.incrementAndGet();
+		lastMoveTimestamp = timestamp;
+	}
+
+	/**
+	 * Records a timer wake-up
+	 *
+	 * @param latenessInNanos
+	 *            the time between the deadline and the actual wake-up in nanoseconds
+	 */
+	public void recordWakeUp(final long latenessInNanos)
+	{
+		final long lateness = Math.max(0, latenessInNanos);
+		lastWakeUpLateness = lateness;
+		totalWakeUpLateness.addAndGet(lateness);
+		wakeUpCount.incrementAndGet();
+		maxWakeUpLateness.accumulateAndGet(lateness, Math::max);
+	}
+
+	/**
+	 * Records a reload of the settings
+	 *
+	 * @param latencyInNanos
+	 *            the time between the detected change and the applied settings in nanoseconds
+	 */
+	public void recordSettingsReload(final long latencyInNanos)
+	{
+		lastSettingsReloadLatency = latencyInNanos;
+		settingsReloadCount.incrementAndGet();
+	}
+
+	/**
+	 * Gets the count of mouse position samples taken
+	 *
+	 * @return the count of samples
+	 */
+	public long getSampleCount()
+	{
+		return sampleCount.get();
+	}
+
+	/**
+	 * Gets the count of nudges issued
+	 *
+	 * @return the count of nudges
+	 */
+	public long getNudgeCount()
+	{
+		return nudgeCount.get();
+	}
+
+	/**
+	 * Gets the count of transitions from active to idle
+	 *
+	 * @return the count of idle transitions
+	 */
+	public long getIdleTransitionCount()
+	{
+		return idleTransitionCount.get();
+	}
+
+	/**
+	 * Gets the count of transitions from idle to active
+	 *
+	 * @return the count of active transitions
+	 */
+	public long getActiveTransitionCount()
+	{
+		return activeTransitionCount.get();
+	}
+
+	/**
+	 * Gets the count of timer wake-ups
+	 *
+	 * @return the count of wake-ups
+	 */
+	public long getWakeUpCount()
+	{
+		return wakeUpCount.get();
+	}
+
+	/**
+	 * Gets the sum of the lateness of all timer wake-ups
+	 *
+	 * @return the total lateness in nanoseconds
+	 */
+	public long getTotalWakeUpLatenessNanos()
+	{
+		return totalWakeUpLateness.get();
+	}
+
+	/**
+	 * Gets the maximum lateness of a timer wake-up
+	 *
+	 * @return the maximum lateness in nanoseconds
+	 */
+	public long getMaxWakeUpLatenessNanos()
+	{
+		return maxWakeUpLateness.get();
+	}
+
+	/**
+	 * Gets the lateness of the last timer wake-up
+	 *
+	 * @return the lateness in nanoseconds
+	 */
+	public long getLastWakeUpLatenessNanos()
+	{
+		return lastWakeUpLateness;
+	}
+
+	/**
+	 * Gets the timestamp of the last nudge
+	 *
+	 * @return the timestamp in milliseconds since the epoch, zero if no nudge was issued
+	 */
+	public long getLastMoveTimestamp()
+	{
+		return lastMoveTimestamp;
+	}
+
+	/**
+	 * Gets the sum of all idle periods including the current one
+	 *
+	 * @return the total idle duration in nanoseconds
+	 */
+	public long getTotalIdleDurationNanos()
+	{
+		final long totalIdleDurationNanos = totalIdleDuration.get();
+		return state == MouseMovementState.IDLE
+			? totalIdleDurationNanos + getCurrentIdleDurationNanos()
+			: totalIdleDurationNanos;
+	}
+
+	/**
+	 * Gets the duration of the current idle period
+	 *
+	 * @return the duration in nanoseconds, zero if the state is not idle
+	 */
+	public long getCurrentIdleDurationNanos()
+	{
+		return state == MouseMovementState.IDLE ? System.nanoTime() - idleSince : 0;
+	}
+
+	/**
+	 * Gets the count of settings reloads
+	 *
+	 * @return the count of settings reloads
+	 */
+	public long getSettingsReloadCount()
+	{
+		return settingsReloadCount.get();
+	}
+
+	/**
+	 * Gets the latency of the last settings reload
+	 *
+	 * @return the latency in nanoseconds, zero if the settings were never reloaded
+	 */
+	public long getLastSettingsReloadLatencyNanos()
+	{
+		return lastSettingsReloadLatency;
+	}
+
+	/**
+	 * Gets the current state
+	 *
+	 * @return the current state
+	 */
+	public MouseMovementState getState()
+	{
+		return state;
+	}
+}
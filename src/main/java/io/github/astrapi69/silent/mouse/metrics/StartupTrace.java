@@ -0,0 +1,263 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link StartupTrace} records the phases of the startup with monotonic timestamps of
+ * {@link System#nanoTime()}. A phase is recorded with
+ * <code>try (StartupTrace.Phase phase = StartupTrace.begin("preferences")) { ... }</code>, the
+ * startup ends with {@link #finish(String)}, which logs one summary line and emits the phases as
+ * JSON. The JSON is written to the file of the system property {@value #FILE_PROPERTY} if it is
+ * set, otherwise it is logged with the level FINE. The recorded phases are also exported by the
+ * {@link MetricsHttpServer}. Both the summary and the JSON name the class data sharing archive the
+ * JVM was launched with, so cold starts with and without the archive can be compared
+ */
+@Log
+public final class StartupTrace
+{
+
+	/** The system property with the file the JSON of the trace is written to */
+	public static final String FILE_PROPERTY = "silent.mouse.startup.trace.file";
+
+	/** The JVM option that maps a class data sharing archive */
+	private static final String SHARED_ARCHIVE_FILE_OPTION = "-XX:SharedArchiveFile=";
+
+	/** The origin of the trace in the time base of {@link System#nanoTime()} */
+	private static final long ORIGIN = System.nanoTime();
+
+	/** The finished phases in the order they ended, guarded by the monitor of this list */
+	private static final List<Phase> PHASES = new ArrayList<>();
+
+	/** Flag that indicates if the startup is finished, later phases are not recorded */
+	private static volatile boolean finished;
+
+	private StartupTrace()
+	{
+	}
+
+	/**
+	 * Begins a new phase, the phase ends when it is closed
+	 *
+	 * @param name
+	 *            the name of the phase
+	 * @return the begun phase
+	 */
+	public static Phase begin(final String name)
+	{
+		return new Phase(name, System.nanoTime());
+	}
+
+	/**
+	 * Gets a copy of the finished phases
+	 *
+	 * @return the finished phases in the order they ended
+	 */
+	public static List<Phase> getPhases()
+	{
+		synchronized (PHASES)
+		{
+			return new ArrayList<>(PHASES);
+		}
+	}
+
+	/**
+	 * Finishes the startup, logs the summary line and emits the JSON of the trace. Only the first
+	 * call has an effect
+	 *
+	 * @param mode
+	 *            the launch mode, for instance <code>run</code> or <code>start</code>
+	 */
+	public static void finish(final String mode)
+	{
+		if (finished)
+		{
+			return;
+		}
+		finished = true;
+		final long totalInNanos = System.nanoTime() - ORIGIN;
+		final long jvmUptimeInMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+		final List<Phase> phases = getPhases();
+		final String sharedArchiveFile = getSharedArchiveFile();
+		final StringBuilder summary = new StringBuilder("Startup (").append(mode).append(") ");
+		for (final Phase phase : phases)
+		{
+			summary.append(phase.getName()).append('=')
+				.append(toMillis(phase.getDurationInNanos())).append("ms ");
+		}
+		summary.append("total=").append(toMillis(totalInNanos)).append("ms jvmUptime=")
+			.append(jvmUptimeInMillis).append("ms cds=").append(sharedArchiveFile);
+		log.info(summary.toString());
+		emit(toJson(mode, totalInNanos, jvmUptimeInMillis, sharedArchiveFile, phases));
+	}
+
+	/**
+	 * Writes the given JSON to the file of the system property {@value #FILE_PROPERTY} or logs it
+	 * with the level FINE
+	 *
+	 * @param json
+	 *            the JSON of the trace
+	 */
+	private static void emit(final String json)
+	{
+		final String file = System.getProperty(FILE_PROPERTY);
+		if (file == null || file.isBlank())
+		{
+			log.fine(json);
+			return;
+		}
+		try
+		{
+			Files.writeString(Path.of(file.trim()), json + System.lineSeparator(),
+				StandardCharsets.UTF_8);
+		}
+		catch (IOException ex)
+		{
+			log.warning("Startup trace could not be written to " + file + ": " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Converts the trace to JSON
+	 *
+	 * @param mode
+	 *            the launch mode
+	 * @param totalInNanos
+	 *            the time from the origin to the end of the startup in nanoseconds
+	 * @param jvmUptimeInMillis
+	 *            the uptime of the JVM at the end of the startup in milliseconds
+	 * @param sharedArchiveFile
+	 *            the class data sharing archive the JVM was launched with or <code>none</code>
+	 * @param phases
+	 *            the finished phases
+	 * @return the JSON of the trace
+	 */
+	private static String toJson(final String mode, final long totalInNanos,
+		final long jvmUptimeInMillis, final String sharedArchiveFile, final List<Phase> phases)
+	{
+		final StringBuilder json = new StringBuilder("{\"mode\":\"").append(mode)
+			.append("\",\"totalMillis\":").append(toMillis(totalInNanos))
+			.append(",\"jvmUptimeMillis\":").append(jvmUptimeInMillis).append(",\"cds\":\"")
+			.append(sharedArchiveFile.replace("\\", "\\\\").replace("\"", "\\\""))
+			.append("\",\"phases\":[");
+		for (int i = 0; i < phases.size(); i++)
+		{
+			final Phase phase = phases.get(i);
+			json.append(i == 0 ? "" : ",").append("{\"name\":\"").append(phase.getName())
+				.append("\",\"startMillis\":").append(toMillis(phase.getStartInNanos()))
+				.append(",\"durationMillis\":").append(toMillis(phase.getDurationInNanos()))
+				.append(",\"thread\":\"").append(phase.getThreadName()).append("\"}");
+		}
+		return json.append("]}").toString();
+	}
+
+	/**
+	 * Gets the class data sharing archive the JVM was launched with. An archive that does not
+	 * exist is not mapped and reported as <code>none</code>
+	 *
+	 * @return the path of the archive or <code>none</code>
+	 */
+	private static String getSharedArchiveFile()
+	{
+		for (final String argument : ManagementFactory.getRuntimeMXBean().getInputArguments())
+		{
+			if (argument.startsWith(SHARED_ARCHIVE_FILE_OPTION))
+			{
+				final String file = argument.substring(SHARED_ARCHIVE_FILE_OPTION.length());
+				return Files.isRegularFile(Path.of(file)) ? file : "none";
+			}
+		}
+		return "none";
+	}
+
+	/**
+	 * Formats the given nanoseconds as milliseconds with one decimal
+	 *
+	 * @param nanos
+	 *            the nanoseconds
+	 * @return the formatted milliseconds
+	 */
+	private static String toMillis(final long nanos)
+	{
+		return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000d);
+	}
+
+	/**
+	 * The class {@link Phase} is one phase of the startup
+	 */
+	@Getter
+	public static final class Phase implements AutoCloseable
+	{
+
+		/** The name of the phase */
+		private final String name;
+
+		/** The name of the thread the phase began on */
+		private final String threadName;
+
+		/** The begin of the phase relative to the origin of the trace in nanoseconds */
+		private final long startInNanos;
+
+		/** The duration of the phase in nanoseconds, -1 while the phase is running */
+		private long durationInNanos = -1;
+
+		private Phase(final String name, final long begin)
+		{
+			this.name = name;
+			this.threadName = Thread.currentThread().getName();
+			this.startInNanos = begin - ORIGIN;
+		}
+
+		/**
+		 * Ends the phase and records it if the startup is not finished yet
+		 */
+		@Override
+		public void close()
+		{
+			if (durationInNanos < 0)
+			{
+				durationInNanos = System.nanoTime() - ORIGIN - startInNanos;
+				if (!finished)
+				{
+					synchronized (PHASES)
+					{
+						PHASES.add(this);
+					}
+				}
+			}
+		}
+	}
+}
@@ -24,6 +24,9 @@
  */
 package io.github.astrapi69.silent.mouse.model;
 
+import java.time.Duration;
+
+import io.github.astrapi69.silent.mouse.engine.ExecutionMode;
 import io.github.astrapi69.silent.mouse.system.tray.SystemTrayType;
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -46,16 +49,22 @@ public class SettingsModelBean
 	/** Y-axis movement value */
 	@Builder.Default
 	Integer yAxis = 1;
-	/** Interval in seconds for mouse movement */
+	/** Interval for mouse movement */
+	@Builder.Default
+	Duration intervalOfMovement = Duration.ofSeconds(10);
+	/** Interval for checking mouse movements */
 	@Builder.Default
-	Integer intervalOfSeconds = 10;
-	/** Interval in seconds for checking mouse movements */
+	Duration intervalOfMouseMovementsCheck = Duration.ofSeconds(5);
+	/** Upper bound the check interval backs off to while the user is idle */
 	@Builder.Default
-	Integer intervalOfMouseMovementsCheckInSeconds = 5;
+	Duration maxIntervalOfMouseMovementsCheck = Duration.ofSeconds(60);
 	/** Flag for enabling mouse movement on startup */
 	@Builder.Default
 	boolean moveOnStartup = true;
 	/** the system tray type value */
 	@Builder.Default
 	SystemTrayType systemTrayType = SystemTrayType.DORKBOX;
+	/** the execution mode of the tracking and movement tasks */
+	@Builder.Default
+	ExecutionMode executionMode = ExecutionMode.PLATFORM;
 }
@@ -0,0 +1,171 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.model;
+
+import java.time.Duration;
+
+import io.github.astrapi69.silent.mouse.engine.ExecutionMode;
+import lombok.Value;
+
+/**
+ * The class {@link SettingsSnapshot} is an immutable and versioned copy of a
+ * {@link SettingsModelBean}. Snapshots are published to the worker threads through a single atomic
+ * reference, so a cycle reads one consistent configuration with one volatile load.<br>
+ * <br>
+ * The scheduler reads the intervals in nanoseconds through the bounded getters, they clamp every
+ * interval to the range from {@link #MINIMUM_INTERVAL} to {@link #MAXIMUM_INTERVAL}. So no
+ * combination of settings, neither from the preferences nor from an override, lets a task wake up
+ * more often than once per {@link #MINIMUM_INTERVAL}
+ */
+@Value
+public class SettingsSnapshot
+{
+	/**
+	 * The lower bound of all intervals of the scheduler, the tick of the timer wheel of the
+	 * execution engine, so sub-second intervals stay possible
+	 */
+	public static final Duration MINIMUM_INTERVAL = Duration.ofMillis(100);
+	/** The upper bound of all intervals of the scheduler */
+	public static final Duration MAXIMUM_INTERVAL = Duration.ofDays(1);
+
+	/** The version of the snapshot, incremented with every published change */
+	long version;
+	/** X-axis movement value */
+	int xAxis;
+	/** Y-axis movement value */
+	int yAxis;
+	/** Interval for mouse movement */
+	Duration intervalOfMovement;
+	/** Interval for checking mouse movements */
+	Duration intervalOfMouseMovementsCheck;
+	/** Upper bound the check interval backs off to while the user is idle */
+	Duration maxIntervalOfMouseMovementsCheck;
+	/** Flag for enabling mouse movement on startup */
+	boolean moveOnStartup;
+	/** the execution mode of the tracking and movement tasks */
+	ExecutionMode executionMode;
+
+	/**
+	 * Creates a new {@link SettingsSnapshot} with the given version from the current values of the
+	 * given settings model
+	 *
+	 * @param version
+	 *            the version of the snapshot
+	 * @param settingsModelBean
+	 *            the settings model
+	 * @return the new {@link SettingsSnapshot}
+	 */
+	public static SettingsSnapshot of(final long version,
+		final SettingsModelBean settingsModelBean)
+	{
+		return new SettingsSnapshot(version, settingsModelBean.getXAxis(),
+			settingsModelBean.getYAxis(), settingsModelBean.getIntervalOfMovement(),
+			settingsModelBean.getIntervalOfMouseMovementsCheck(),
+			settingsModelBean.getMaxIntervalOfMouseMovementsCheck(),
+			settingsModelBean.isMoveOnStartup(), settingsModelBean.getExecutionMode());
+	}
+
+	/**
+	 * Creates a new {@link SettingsModelBean} with the values of this snapshot. The system tray
+	 * type is not part of a snapshot and keeps its default
+	 *
+	 * @return the new {@link SettingsModelBean}
+	 */
+	public SettingsModelBean toSettingsModelBean()
+	{
+		return SettingsModelBean.builder().xAxis(xAxis).yAxis(yAxis)
+			.intervalOfMovement(intervalOfMovement)
+			.intervalOfMouseMovementsCheck(intervalOfMouseMovementsCheck)
+			.maxIntervalOfMouseMovementsCheck(maxIntervalOfMouseMovementsCheck)
+			.moveOnStartup(moveOnStartup).executionMode(executionMode).build();
+	}
+
+	/**
+	 * Gets the bounded interval of the mouse movement
+	 *
+	 * @return the interval of the mouse movement in nanoseconds
+	 */
+	public long getMovementIntervalInNanos()
+	{
+		return toBoundedNanos(intervalOfMovement);
+	}
+
+	/**
+	 * Gets the bounded interval of the mouse tracking while the user is active
+	 *
+	 * @return the interval of the mouse tracking in nanoseconds
+	 */
+	public long getCheckIntervalInNanos()
+	{
+		return toBoundedNanos(intervalOfMouseMovementsCheck);
+	}
+
+	/**
+	 * Gets the bounded interval the mouse tracking backs off to while the user is idle, it is never
+	 * below the interval of {@link #getCheckIntervalInNanos()}
+	 *
+	 * @return the maximum interval of the mouse tracking in nanoseconds
+	 */
+	public long getMaxCheckIntervalInNanos()
+	{
+		return Math.max(getCheckIntervalInNanos(),
+			toBoundedNanos(maxIntervalOfMouseMovementsCheck));
+	}
+
+	/**
+	 * Gets the interval until the next movement cycle after user activity was detected. That is
+	 * the difference between the movement and the check interval, but never less than the check
+	 * interval, so a movement interval that is not greater than the check interval does not lead
+	 * to a busy loop
+	 *
+	 * @return the interval until the next movement cycle in nanoseconds
+	 */
+	public long getRetryIntervalInNanos()
+	{
+		final long checkIntervalInNanos = getCheckIntervalInNanos();
+		return Math.max(checkIntervalInNanos, getMovementIntervalInNanos() - checkIntervalInNanos);
+	}
+
+	/**
+	 * Converts the given interval to nanoseconds clamped to the range from
+	 * {@link #MINIMUM_INTERVAL} to {@link #MAXIMUM_INTERVAL}, a missing interval is the minimum
+	 *
+	 * @param interval
+	 *            the interval to convert
+	 * @return the bounded interval in nanoseconds
+	 */
+	private static long toBoundedNanos(final Duration interval)
+	{
+		if (interval == null || interval.compareTo(MINIMUM_INTERVAL) < 0)
+		{
+			return MINIMUM_INTERVAL.toNanos();
+		}
+		if (interval.compareTo(MAXIMUM_INTERVAL) > 0)
+		{
+			return MAXIMUM_INTERVAL.toNanos();
+		}
+		return interval.toNanos();
+	}
+}
@@ -0,0 +1,356 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.network;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.github.astrapi69.net.ip.IpInfo;
+import io.github.astrapi69.net.ip.IpInfoExtensions;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link IpInfoCache} caches the {@link IpInfo} of the host for a time to live. The
+ * local, router, external and local network addresses are looked up concurrently on virtual
+ * threads, every lookup is bounded by its own timeout. A lookup that fails or times out keeps the
+ * previous address or reports {@value #UNAVAILABLE}, so one slow lookup never delays the
+ * others.<br>
+ * <br>
+ * An expired entry is still returned while a refresh runs in the background, only the very first
+ * call waits for the lookups. Nothing is looked up before the first call.<br>
+ * <br>
+ * The lookup of the external address opens a URL connection without timeouts. So the default
+ * connect and read timeouts of URL connections are set to the lookup timeout unless they are
+ * configured already, then a lookup that timed out does not keep its connection open forever
+ */
+@Log
+public class IpInfoCache
+{
+
+	/** The default time an {@link IpInfo} is fresh */
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+	/** The default timeout of a single lookup */
+	public static final Duration DEFAULT_LOOKUP_TIMEOUT = Duration.ofSeconds(3);
+
+	/** The address reported for a lookup that failed without a previous address */
+	public static final String UNAVAILABLE = "unavailable";
+
+	/** The system property of the default connect timeout of URL connections in milliseconds */
+	public static final String DEFAULT_CONNECT_TIMEOUT_PROPERTY = "sun.net.client.defaultConnectTimeout";
+
+	/** The system property of the default read timeout of URL connections in milliseconds */
+	public static final String DEFAULT_READ_TIMEOUT_PROPERTY = "sun.net.client.defaultReadTimeout";
+
+	/** The executor of the lookups, one virtual thread per lookup */
+	private static final ExecutorService LOOKUP_EXECUTOR = Executors
+		.newVirtualThreadPerTaskExecutor();
+
+	/** The time an {@link IpInfo} is fresh */
+	@Getter
+	private final Duration timeToLive;
+
+	/** The timeout of a single lookup */
+	@Getter
+	private final Duration lookupTimeout;
+
+	/** The refresh in progress or null if none is running */
+	private final AtomicReference<Refresh> pending = new AtomicReference<>();
+
+	/** The epoch of the cache, incremented by every invalidation, guarded by this cache */
+	private long epoch;
+
+	/** The cached {@link IpInfo} or null before the first lookup finished */
+	private volatile IpInfo ipInfo;
+
+	/** The time of the last finished lookup in the time base of {@link System#nanoTime()} */
+	private volatile long lookedUpAtNanos;
+
+	/**
+	 * Instantiates a new {@link IpInfoCache} with the default time to live and lookup timeout
+	 */
+	public IpInfoCache()
+	{
+		this(DEFAULT_TIME_TO_LIVE, DEFAULT_LOOKUP_TIMEOUT);
+	}
+
+	/**
+	 * Instantiates a new {@link IpInfoCache}
+	 *
+	 * @param timeToLive
+	 *            the time an {@link IpInfo} is fresh
+	 * @param lookupTimeout
+	 *            the timeout of a single lookup
+	 */
+	public IpInfoCache(final Duration timeToLive, final Duration lookupTimeout)
+	{
+		this.timeToLive = timeToLive;
+		this.lookupTimeout = lookupTimeout;
+		setDefaultTimeoutIfAbsent(DEFAULT_CONNECT_TIMEOUT_PROPERTY, lookupTimeout);
+		setDefaultTimeoutIfAbsent(DEFAULT_READ_TIMEOUT_PROPERTY, lookupTimeout);
+	}
+
+	/**
+	 * Sets the given system property of a default timeout of URL connections to the given timeout
+	 * if it is not set yet. The JDK reads the default timeouts when the first URL connection is
+	 * opened, so they must be set before
+	 *
+	 * @param property
+	 *            the system property of the default timeout
+	 * @param timeout
+	 *            the timeout
+	 */
+	private static void setDefaultTimeoutIfAbsent(final String property, final Duration timeout)
+	{
+		if (System.getProperty(property) == null)
+		{
+			System.setProperty(property, String.valueOf(timeout.toMillis()));
+		}
+	}
+
+	/**
+	 * Gets the cached {@link IpInfo}. An expired entry is returned as is and refreshed in the
+	 * background, only if nothing is cached yet this waits for the lookups, at most for the lookup
+	 * timeout
+	 *
+	 * @return the cached {@link IpInfo}
+	 */
+	public IpInfo get()
+	{
+		final IpInfo current = ipInfo;
+		if (current == null)
+		{
+			return refresh().join();
+		}
+		if (isExpired())
+		{
+			refresh();
+		}
+		return current;
+	}
+
+	/**
+	 * Checks if the cached {@link IpInfo} is missing or older than the time to live
+	 *
+	 * @return true if the cached {@link IpInfo} is missing or expired
+	 */
+	public boolean isExpired()
+	{
+		return ipInfo == null || timeToLive.toNanos() <= System.nanoTime() - lookedUpAtNanos;
+	}
+
+	/**
+	 * Discards the cached {@link IpInfo} and looks it up again in the background, for instance
+	 * after the network changed. Until the lookups finished {@link #get()} waits for them instead
+	 * of returning the discarded addresses. A refresh that was started before is not awaited, its
+	 * result is discarded. If nothing was looked up yet, nothing is looked up now
+	 *
+	 * @return the future of the new refresh or a future of null if nothing was looked up yet
+	 */
+	public CompletableFuture<IpInfo> invalidate()
+	{
+		final boolean lookedUp;
+		synchronized (this)
+		{
+			epoch++;
+			lookedUp = ipInfo != null || pending.get() != null;
+			ipInfo = null;
+		}
+		return lookedUp ? refresh() : CompletableFuture.completedFuture(null);
+	}
+
+	/**
+	 * Refreshes the cached {@link IpInfo} in the background. If a refresh of the current epoch is
+	 * already running no further one is started
+	 *
+	 * @return the future of the running refresh
+	 */
+	public CompletableFuture<IpInfo> refresh()
+	{
+		while (true)
+		{
+			final Refresh running = pending.get();
+			final long currentEpoch = getEpoch();
+			if (running != null && running.epoch == currentEpoch)
+			{
+				return running.future;
+			}
+			final Refresh refresh = new Refresh(currentEpoch);
+			if (pending.compareAndSet(running, refresh))
+			{
+				lookUp().whenComplete((result, throwable) -> {
+					store(refresh.epoch, result);
+					pending.compareAndSet(refresh, null);
+					if (throwable != null)
+					{
+						refresh.future.completeExceptionally(throwable);
+					}
+					else
+					{
+						refresh.future.complete(result);
+					}
+				});
+				return refresh.future;
+			}
+		}
+	}
+
+	/**
+	 * Gets the current epoch
+	 *
+	 * @return the current epoch
+	 */
+	private synchronized long getEpoch()
+	{
+		return epoch;
+	}
+
+	/**
+	 * Stores the given result of a lookup that was started in the given epoch. The result is
+	 * discarded if the cache was invalidated since
+	 *
+	 * @param lookupEpoch
+	 *            the epoch the lookup was started in
+	 * @param result
+	 *            the looked up {@link IpInfo} or null if the lookup failed
+	 */
+	private synchronized void store(final long lookupEpoch, final IpInfo result)
+	{
+		if (result != null && lookupEpoch == epoch)
+		{
+			ipInfo = result;
+			lookedUpAtNanos = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Looks up the four addresses concurrently
+	 *
+	 * @return the future of the looked up {@link IpInfo}, it never completes exceptionally
+	 */
+	private CompletableFuture<IpInfo> lookUp()
+	{
+		final long begin = System.nanoTime();
+		final IpInfo previous = ipInfo;
+		final CompletableFuture<String> localIPAddress = lookUp("local",
+			IpInfoExtensions::getLocalIPAddress,
+			previous != null ? previous.getLocalIPAddress() : null);
+		final CompletableFuture<String> routerIPAddress = lookUp("router",
+			IpInfoExtensions::getRouterIPAddress,
+			previous != null ? previous.getRouterIPAddress() : null);
+		final CompletableFuture<String> externalIPAddress = lookUp("external",
+			IpInfoExtensions::getExternalIPAddress,
+			previous != null ? previous.getExternalIPAddress() : null);
+		final CompletableFuture<String> localNetworkIPAddress = lookUp("local network",
+			IpInfoExtensions::getLocalNetworkIPAddress,
+			previous != null ? previous.getLocalNetworkIPAddress() : null);
+		return CompletableFuture
+			.allOf(localIPAddress, routerIPAddress, externalIPAddress, localNetworkIPAddress)
+			.thenApply(ignored -> {
+				log.fine("IP information looked up in "
+					+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) + " ms");
+				return IpInfo.builder().localIPAddress(localIPAddress.join())
+					.routerIPAddress(routerIPAddress.join())
+					.externalIPAddress(externalIPAddress.join())
+					.localNetworkIPAddress(localNetworkIPAddress.join()).build();
+			});
+	}
+
+	/**
+	 * Looks up one address on its own virtual thread, bounded by the lookup timeout
+	 *
+	 * @param name
+	 *            the name of the address for the log
+	 * @param lookup
+	 *            the lookup of the address
+	 * @param previous
+	 *            the previous address or null if there is none
+	 * @return the future of the address, it never completes exceptionally
+	 */
+	private CompletableFuture<String> lookUp(final String name, final Lookup lookup,
+		final String previous)
+	{
+		final String fallback = previous != null ? previous : UNAVAILABLE;
+		return CompletableFuture.supplyAsync(() -> {
+			try
+			{
+				final String address = lookup.lookUp();
+				return address != null ? address : fallback;
+			}
+			catch (Exception ex)
+			{
+				throw new CompletionException(ex);
+			}
+		}, LOOKUP_EXECUTOR).orTimeout(lookupTimeout.toMillis(), TimeUnit.MILLISECONDS)
+			.exceptionally(throwable -> {
+				final Throwable cause = throwable instanceof CompletionException
+					&& throwable.getCause() != null ? throwable.getCause() : throwable;
+				log.warning("Lookup of the " + name + " IP address failed, using '" + fallback
+					+ "': " + cause);
+				return fallback;
+			});
+	}
+
+	/**
+	 * The class {@link Refresh} is a refresh in progress and the epoch it was started in
+	 */
+	private static final class Refresh
+	{
+
+		/** The epoch the refresh was started in */
+		private final long epoch;
+
+		/** The future of the looked up {@link IpInfo} */
+		private final CompletableFuture<IpInfo> future = new CompletableFuture<>();
+
+		private Refresh(final long epoch)
+		{
+			this.epoch = epoch;
+		}
+	}
+
+	/**
+	 * The interface {@link Lookup} looks up one address
+	 */
+	@FunctionalInterface
+	private interface Lookup
+	{
+
+		/**
+		 * Looks up the address
+		 *
+		 * @return the address
+		 * @throws Exception
+		 *             if the lookup fails
+		 */
+		String lookUp() throws Exception;
+	}
+}
@@ -0,0 +1,239 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.network;
+
+import java.io.Closeable;
+import java.net.InterfaceAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.github.astrapi69.silent.mouse.engine.ExecutionEngine;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link NetworkChangeWatcher} polls the state of the {@link NetworkInterface}s on an
+ * {@link ExecutionEngine} and invalidates an {@link IpInfoCache} when it changes. A poll
+ * only asks the operating system for the interfaces and their addresses, it never does a network
+ * lookup, so the IP information is looked up again only after the interfaces actually changed.<br>
+ * <br>
+ * The state is reduced to a fingerprint of the names and addresses of the interfaces that are up,
+ * loopback interfaces are ignored. The fingerprint does not depend on the order of the interfaces.
+ * By default the interfaces are polled once per time to live of the cache, so the watcher does
+ * not wake up more often than the cache would look up the addresses anyway. A poll may be deferred
+ * by half of the poll interval to share a wake-up with the other periodic tasks
+ */
+@Log
+public class NetworkChangeWatcher implements Closeable
+{
+
+	/** The cache that is invalidated when the interfaces change */
+	private final IpInfoCache ipInfoCache;
+
+	/** The interval between two polls */
+	@Getter
+	private final Duration pollInterval;
+
+	/** The time a poll may be deferred beyond the poll interval */
+	@Getter
+	private final Duration pollSlack;
+
+	/** The engine the polls run on */
+	private final ExecutionEngine executionEngine;
+
+	/** The fingerprint of the last poll */
+	@Getter
+	private volatile long fingerprint;
+
+	/** The pending poll or null if the watcher is not started */
+	private Future<?> pollTask;
+
+	/** Flag that indicates if the watcher is closed */
+	private volatile boolean closed;
+
+	/**
+	 * Instantiates a new {@link NetworkChangeWatcher} that polls once per time to live of the given
+	 * cache. The watcher is not started
+	 *
+	 * @param ipInfoCache
+	 *            the cache that is invalidated when the interfaces change
+	 */
+	public NetworkChangeWatcher(final IpInfoCache ipInfoCache)
+	{
+		this(ipInfoCache, ExecutionEngine.getShared());
+	}
+
+	/**
+	 * Instantiates a new {@link NetworkChangeWatcher} that polls once per time to live of the given
+	 * cache on the given engine. The watcher is not started
+	 *
+	 * @param ipInfoCache
+	 *            the cache that is invalidated when the interfaces change
+	 * @param executionEngine
+	 *            the engine the polls run on
+	 */
+	public NetworkChangeWatcher(final IpInfoCache ipInfoCache,
+		final ExecutionEngine executionEngine)
+	{
+		this(ipInfoCache, ipInfoCache.getTimeToLive(), executionEngine);
+	}
+
+	/**
+	 * Instantiates a new {@link NetworkChangeWatcher} that polls on the shared engine. The watcher
+	 * is not started
+	 *
+	 * @param ipInfoCache
+	 *            the cache that is invalidated when the interfaces change
+	 * @param pollInterval
+	 *            the interval between two polls
+	 */
+	public NetworkChangeWatcher(final IpInfoCache ipInfoCache, final Duration pollInterval)
+	{
+		this(ipInfoCache, pollInterval, ExecutionEngine.getShared());
+	}
+
+	/**
+	 * Instantiates a new {@link NetworkChangeWatcher}. The watcher is not started
+	 *
+	 * @param ipInfoCache
+	 *            the cache that is invalidated when the interfaces change
+	 * @param pollInterval
+	 *            the interval between two polls
+	 * @param executionEngine
+	 *            the engine the polls run on
+	 */
+	public NetworkChangeWatcher(final IpInfoCache ipInfoCache, final Duration pollInterval,
+		final ExecutionEngine executionEngine)
+	{
+		this.ipInfoCache = ipInfoCache;
+		this.pollInterval = pollInterval;
+		this.pollSlack = pollInterval.dividedBy(2);
+		this.executionEngine = executionEngine;
+	}
+
+	/**
+	 * Takes the current fingerprint and starts polling
+	 */
+	public synchronized void start()
+	{
+		if (pollTask != null || closed)
+		{
+			return;
+		}
+		fingerprint = computeFingerprint();
+		schedulePoll();
+		log.fine("Watching the network interfaces every " + pollInterval.toMillis() + " ms");
+	}
+
+	/**
+	 * Stops polling
+	 */
+	@Override
+	public synchronized void close()
+	{
+		closed = true;
+		if (pollTask != null)
+		{
+			pollTask.cancel(false);
+			pollTask = null;
+		}
+	}
+
+	/**
+	 * Schedules the next poll
+	 */
+	private synchronized void schedulePoll()
+	{
+		if (!closed)
+		{
+			pollTask = executionEngine.schedule(this::poll, pollInterval.toNanos(),
+				pollSlack.toNanos(), TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Compares the current fingerprint with the one of the last poll and invalidates the cache if
+	 * they differ
+	 */
+	private void poll()
+	{
+		try
+		{
+			final long current = computeFingerprint();
+			if (current != fingerprint)
+			{
+				fingerprint = current;
+				log.info("Network interfaces changed, looking up the IP information again");
+				ipInfoCache.invalidate();
+			}
+		}
+		finally
+		{
+			schedulePoll();
+		}
+	}
+
+	/**
+	 * Computes the fingerprint of the names and addresses of the interfaces that are up
+	 *
+	 * @return the fingerprint or zero if the interfaces can not be read
+	 */
+	static long computeFingerprint()
+	{
+		try
+		{
+			final Enumeration<NetworkInterface> networkInterfaces = NetworkInterface
+				.getNetworkInterfaces();
+			long fingerprint = 0;
+			while (networkInterfaces != null && networkInterfaces.hasMoreElements())
+			{
+				final NetworkInterface networkInterface = networkInterfaces.nextElement();
+				if (!networkInterface.isUp() || networkInterface.isLoopback())
+				{
+					continue;
+				}
+				long hash = networkInterface.getName().hashCode();
+				for (final InterfaceAddress interfaceAddress : networkInterface
+					.getInterfaceAddresses())
+				{
+					hash += 31L * Arrays.hashCode(interfaceAddress.getAddress().getAddress())
+						+ interfaceAddress.getNetworkPrefixLength();
+				}
+				fingerprint += hash * 0x9E3779B97F4A7C15L;
+			}
+			return fingerprint;
+		}
+		catch (SocketException ex)
+		{
+			log.warning("Network interfaces could not be read: " + ex.getMessage());
+			return 0;
+		}
+	}
+}
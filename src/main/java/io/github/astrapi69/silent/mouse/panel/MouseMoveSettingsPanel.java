@@ -24,11 +24,12 @@
  */
 package io.github.astrapi69.silent.mouse.panel;
 
+import java.awt.Color;
 import java.awt.event.ActionEvent;
 import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
-import java.util.Optional;
-import java.util.prefs.Preferences;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 
 import javax.swing.*;
 
@@ -38,8 +39,10 @@ import io.github.astrapi69.component.model.check.CheckedModel;
 import io.github.astrapi69.model.LambdaModel;
 import io.github.astrapi69.model.api.IModel;
 import io.github.astrapi69.silent.mouse.extension.SettingsExtensions;
-import io.github.astrapi69.silent.mouse.frame.SystemTrayApplicationFrame;
 import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.model.SettingsSnapshot;
+import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
+import io.github.astrapi69.silent.mouse.store.SettingsStore;
 import io.github.astrapi69.swing.base.BasePanel;
 import io.github.astrapi69.swing.document.NumberValuesDocument;
 import io.github.astrapi69.swing.model.combobox.GenericComboBoxModel;
@@ -51,7 +54,9 @@ import net.miginfocom.swing.MigLayout;
 
 /**
  * The {@link MouseMoveSettingsPanel} is a Swing panel for configuring mouse movement settings
- * including intervals for movements, checking movements, and enabling mouse movement at startup
+ * including intervals for movements, checking movements, and enabling mouse movement at startup.
+ * The panel edits its own copy of the settings, {@link #applySettings} publishes and persists the
+ * edited settings together
  */
 @Getter
 public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
@@ -59,10 +64,6 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 	/** Constant for the "not set" option */
 	public static final String NOT_SET = "not set";
 
-	/** Preferences object to save and retrieve user settings */
-	private static final Preferences applicationPreferences = Preferences.userRoot()
-		.node(SystemTrayApplicationFrame.class.getName());
-
 	/**
 	 * Combo box for selecting the X-axis movement value
 	 */
@@ -74,14 +75,19 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 	private JMComboBox<Integer, GenericComboBoxModel<Integer>> cmbVariableY;
 
 	/**
-	 * Label for displaying the interval of seconds for mouse movements
+	 * Label for displaying the interval of mouse movements in milliseconds
 	 */
-	private JLabel lblIntervalOfSeconds;
+	private JLabel lblIntervalOfMovement;
 
 	/**
-	 * Label for displaying the interval of mouse movements check in seconds
+	 * Label for displaying the interval of mouse movements check in milliseconds
 	 */
-	private JLabel lblIntervalOfMouseMovementsCheckInSeconds;
+	private JLabel lblIntervalOfMouseMovementsCheck;
+
+	/**
+	 * Label for displaying the maximum interval of mouse movements check in milliseconds
+	 */
+	private JLabel lblMaxIntervalOfMouseMovementsCheck;
 
 	/**
 	 * Label for displaying the settings header
@@ -99,14 +105,19 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 	private JLabel lblVariableY;
 
 	/**
-	 * Text field for inputting the interval of seconds for mouse movements
+	 * Text field for inputting the interval of mouse movements in milliseconds
+	 */
+	private JMTextField txtIntervalOfMovement;
+
+	/**
+	 * Text field for inputting the interval of mouse movements check in milliseconds
 	 */
-	private JMTextField txtIntervalOfSeconds;
+	private JMTextField txtIntervalOfMouseMovementsCheck;
 
 	/**
-	 * Text field for inputting the interval of mouse movements check in seconds
+	 * Text field for inputting the maximum interval of mouse movements check in milliseconds
 	 */
-	private JMTextField txtIntervalOfMouseMovementsCheckInSeconds;
+	private JMTextField txtMaxIntervalOfMouseMovementsCheck;
 
 	/**
 	 * Checkbox for enabling or disabling mouse movement on startup
@@ -124,26 +135,6 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 		super(model);
 	}
 
-	/**
-	 * Gets the text field model from the given action event
-	 *
-	 * @param actionEvent
-	 *            the action event
-	 * @return an optional containing the text field model if present
-	 */
-	private Optional<IModel<String>> getJMTextFieldModel(ActionEvent actionEvent)
-	{
-		if (actionEvent.getSource() instanceof JMTextField)
-		{
-			var source = (JMTextField)actionEvent.getSource();
-			String sourceText = source.getText();
-			IModel<String> propertyModel = source.getPropertyModel();
-			propertyModel.setObject(sourceText);
-			return Optional.of(propertyModel);
-		}
-		return Optional.empty();
-	}
-
 	/**
 	 * {@inheritDoc}
 	 */
@@ -153,22 +144,38 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 		lblSettings = new JLabel();
 		lblVariableX = new JLabel();
 		lblVariableY = new JLabel();
-		lblIntervalOfSeconds = new JLabel();
-		lblIntervalOfMouseMovementsCheckInSeconds = new JLabel();
+		lblIntervalOfMovement = new JLabel();
+		lblIntervalOfMouseMovementsCheck = new JLabel();
+		lblMaxIntervalOfMouseMovementsCheck = new JLabel();
 		cmbVariableX = new JMComboBox<>(
 			new GenericComboBoxModel<>(ArrayFactory.newArray(1, 2, 3, 4)),
 			LambdaModel.of(getModelObject()::getXAxis, getModelObject()::setXAxis));
 		cmbVariableY = new JMComboBox<>(
 			new GenericComboBoxModel<>(ArrayFactory.newArray(1, 2, 3, 4)),
 			LambdaModel.of(getModelObject()::getYAxis, getModelObject()::setYAxis));
-		txtIntervalOfSeconds = new JMTextField();
-		txtIntervalOfSeconds.setDocument(new NumberValuesDocument());
-		ValueBox<String> intervalOfSecondsAsStringBox = ValueBox.<String> builder()
-			.value(getModelObject().getIntervalOfSeconds().toString()).build();
-		txtIntervalOfSeconds.setPropertyModel(LambdaModel.of(intervalOfSecondsAsStringBox::getValue,
-			intervalOfSecondsAsStringBox::setValue));
-		txtIntervalOfMouseMovementsCheckInSeconds = new JMTextField();
-		txtIntervalOfMouseMovementsCheckInSeconds.setDocument(new NumberValuesDocument());
+		txtIntervalOfMovement = new JMTextField();
+		txtIntervalOfMovement.setDocument(new NumberValuesDocument());
+		ValueBox<String> intervalOfMovementAsStringBox = ValueBox.<String> builder()
+			.value(String.valueOf(getModelObject().getIntervalOfMovement().toMillis())).build();
+		txtIntervalOfMovement.setPropertyModel(LambdaModel
+			.of(intervalOfMovementAsStringBox::getValue, intervalOfMovementAsStringBox::setValue));
+		txtIntervalOfMouseMovementsCheck = new JMTextField();
+		txtIntervalOfMouseMovementsCheck.setDocument(new NumberValuesDocument());
+		ValueBox<String> intervalOfMouseMovementsCheckAsStringBox = ValueBox.<String> builder()
+			.value(String.valueOf(getModelObject().getIntervalOfMouseMovementsCheck().toMillis()))
+			.build();
+		txtIntervalOfMouseMovementsCheck
+			.setPropertyModel(LambdaModel.of(intervalOfMouseMovementsCheckAsStringBox::getValue,
+				intervalOfMouseMovementsCheckAsStringBox::setValue));
+		txtMaxIntervalOfMouseMovementsCheck = new JMTextField();
+		txtMaxIntervalOfMouseMovementsCheck.setDocument(new NumberValuesDocument());
+		ValueBox<String> maxIntervalOfMouseMovementsCheckAsStringBox = ValueBox.<String> builder()
+			.value(
+				String.valueOf(getModelObject().getMaxIntervalOfMouseMovementsCheck().toMillis()))
+			.build();
+		txtMaxIntervalOfMouseMovementsCheck
+			.setPropertyModel(LambdaModel.of(maxIntervalOfMouseMovementsCheckAsStringBox::getValue,
+				maxIntervalOfMouseMovementsCheckAsStringBox::setValue));
 		checkBoxMoveOnStartup = new JMCheckBox("Moving mouse already from start");
 
 		lblVariableX.setText("Move mouse on X axis in pixel");
@@ -177,9 +184,11 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 
 		lblVariableY.setText("Move mouse on Y axis in pixel");
 
-		lblIntervalOfSeconds.setText("Move mouse every time (in seconds)");
-		lblIntervalOfMouseMovementsCheckInSeconds
-			.setText("Check mouse movement every time (in seconds)");
+		lblIntervalOfMovement.setText("Move mouse every time (in milliseconds)");
+		lblIntervalOfMouseMovementsCheck
+			.setText("Check mouse movement every time (in milliseconds)");
+		lblMaxIntervalOfMouseMovementsCheck
+			.setText("Check mouse movement at most every time while idle (in milliseconds)");
 
 		final CheckedModel checkedModelBean = CheckedModel.builder().build();
 		checkedModelBean.setChecked(getModelObject().isMoveOnStartup());
@@ -196,44 +205,59 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 		cmbVariableY.setName("cmbVariableY");
 		cmbVariableY.addActionListener(this::onChangeCmbVariableY);
 
-		txtIntervalOfSeconds.setText(getModelObject().getIntervalOfSeconds() != null
-			? getModelObject().getIntervalOfSeconds().toString()
-			: "180");
-		txtIntervalOfSeconds.setName("txtIntervalOfSeconds");
-		txtIntervalOfSeconds.addActionListener(this::onChangeTxtIntervalOfSeconds);
-		txtIntervalOfSeconds.addFocusListener(new FocusAdapter()
+		txtIntervalOfMovement.setText(getModelObject().getIntervalOfMovement() != null
+			? String.valueOf(getModelObject().getIntervalOfMovement().toMillis())
+			: "180000");
+		txtIntervalOfMovement.setName("txtIntervalOfMovement");
+		txtIntervalOfMovement.addActionListener(this::onChangeTxtIntervalOfMovement);
+		txtIntervalOfMovement.addFocusListener(new FocusAdapter()
 		{
 			@Override
 			public void focusLost(FocusEvent event)
 			{
-				JMTextField source = (JMTextField)event.getSource();
-				final String text = source.getText();
-				getModelObject().setIntervalOfSeconds(Integer.valueOf(text));
-				SystemTrayApplicationFrame.getInstance().getApplicationPreferences().put(
-					SettingsExtensions.INTERVAL_OF_SECONDS,
-					getModelObject().getIntervalOfSeconds().toString());
+				final SettingsModelBean modelObject = getModelObject();
+				modelObject.setIntervalOfMovement(parseInterval(txtIntervalOfMovement,
+					SettingsExtensions.INTERVAL_OF_MOVEMENT, modelObject.getIntervalOfMovement()));
 			}
 		});
 
-		txtIntervalOfMouseMovementsCheckInSeconds
-			.setText(getModelObject().getIntervalOfMouseMovementsCheckInSeconds() != null
-				? getModelObject().getIntervalOfMouseMovementsCheckInSeconds().toString()
-				: "90");
-		txtIntervalOfMouseMovementsCheckInSeconds
-			.setName("txtIntervalOfMouseMovementsCheckInSeconds");
-		txtIntervalOfMouseMovementsCheckInSeconds
-			.addActionListener(this::onChangeTxtIntervalOfMouseMovementsCheckInSeconds);
-		txtIntervalOfMouseMovementsCheckInSeconds.addFocusListener(new FocusAdapter()
+		txtIntervalOfMouseMovementsCheck
+			.setText(getModelObject().getIntervalOfMouseMovementsCheck() != null
+				? String.valueOf(getModelObject().getIntervalOfMouseMovementsCheck().toMillis())
+				: "90000");
+		txtIntervalOfMouseMovementsCheck.setName("txtIntervalOfMouseMovementsCheck");
+		txtIntervalOfMouseMovementsCheck
+			.addActionListener(this::onChangeTxtIntervalOfMouseMovementsCheck);
+		txtIntervalOfMouseMovementsCheck.addFocusListener(new FocusAdapter()
 		{
 			@Override
 			public void focusLost(FocusEvent event)
 			{
-				JMTextField source = (JMTextField)event.getSource();
-				final String text = source.getText();
-				getModelObject().setIntervalOfMouseMovementsCheckInSeconds(Integer.valueOf(text));
-				SystemTrayApplicationFrame.getInstance().getApplicationPreferences().put(
-					SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK_IN_SECONDS,
-					getModelObject().getIntervalOfMouseMovementsCheckInSeconds().toString());
+				final SettingsModelBean modelObject = getModelObject();
+				modelObject.setIntervalOfMouseMovementsCheck(parseInterval(
+					txtIntervalOfMouseMovementsCheck,
+					SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+					modelObject.getIntervalOfMouseMovementsCheck()));
+			}
+		});
+
+		txtMaxIntervalOfMouseMovementsCheck
+			.setText(getModelObject().getMaxIntervalOfMouseMovementsCheck() != null
+				? String.valueOf(getModelObject().getMaxIntervalOfMouseMovementsCheck().toMillis())
+				: "900000");
+		txtMaxIntervalOfMouseMovementsCheck.setName("txtMaxIntervalOfMouseMovementsCheck");
+		txtMaxIntervalOfMouseMovementsCheck
+			.addActionListener(this::onChangeTxtMaxIntervalOfMouseMovementsCheck);
+		txtMaxIntervalOfMouseMovementsCheck.addFocusListener(new FocusAdapter()
+		{
+			@Override
+			public void focusLost(FocusEvent event)
+			{
+				final SettingsModelBean modelObject = getModelObject();
+				modelObject.setMaxIntervalOfMouseMovementsCheck(parseInterval(
+					txtMaxIntervalOfMouseMovementsCheck,
+					SettingsExtensions.MAX_INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+					modelObject.getMaxIntervalOfMouseMovementsCheck()));
 			}
 		});
 	}
@@ -249,9 +273,6 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 		JMCheckBox source = (JMCheckBox)actionEvent.getSource();
 		Boolean moveOnStartup = source.getPropertyModel().getObject();
 		getModelObject().setMoveOnStartup(moveOnStartup);
-		String moveOnStartupAsString = Boolean.toString(getModelObject().isMoveOnStartup());
-		SystemTrayApplicationFrame.getInstance().getApplicationPreferences()
-			.put(SettingsExtensions.MOVE_ON_STARTUP, moveOnStartupAsString);
 	}
 
 	/**
@@ -267,8 +288,6 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 			.getSource();
 		final Object selectedItem = source.getModel().getSelectedItem();
 		getModelObject().setYAxis(Integer.valueOf(selectedItem.toString()));
-		SystemTrayApplicationFrame.getInstance().getApplicationPreferences()
-			.put(SettingsExtensions.Y_AXIS, getModelObject().getYAxis().toString());
 	}
 
 	/**
@@ -284,8 +303,6 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 			.getSource();
 		final Object selectedItem = source.getModel().getSelectedItem();
 		getModelObject().setXAxis(Integer.valueOf(selectedItem.toString()));
-		SystemTrayApplicationFrame.getInstance().getApplicationPreferences()
-			.put(SettingsExtensions.X_AXIS, getModelObject().getXAxis().toString());
 	}
 
 	/**
@@ -294,14 +311,11 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 	 * @param actionEvent
 	 *            the action event triggered by text field interaction
 	 */
-	protected void onChangeTxtIntervalOfSeconds(final ActionEvent actionEvent)
+	protected void onChangeTxtIntervalOfMovement(final ActionEvent actionEvent)
 	{
-		getJMTextFieldModel(actionEvent).ifPresent(propertyModel -> {
-			getModelObject().setIntervalOfSeconds(Integer.valueOf(propertyModel.getObject()));
-			SystemTrayApplicationFrame.getInstance().getApplicationPreferences().put(
-				SettingsExtensions.INTERVAL_OF_SECONDS,
-				getModelObject().getIntervalOfSeconds().toString());
-		});
+		final SettingsModelBean modelObject = getModelObject();
+		modelObject.setIntervalOfMovement(parseInterval(txtIntervalOfMovement,
+			SettingsExtensions.INTERVAL_OF_MOVEMENT, modelObject.getIntervalOfMovement()));
 	}
 
 	/**
@@ -310,15 +324,197 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 	 * @param actionEvent
 	 *            the action event triggered by text field interaction
 	 */
-	protected void onChangeTxtIntervalOfMouseMovementsCheckInSeconds(final ActionEvent actionEvent)
+	protected void onChangeTxtIntervalOfMouseMovementsCheck(final ActionEvent actionEvent)
 	{
-		getJMTextFieldModel(actionEvent).ifPresent(propertyModel -> {
-			getModelObject().setIntervalOfMouseMovementsCheckInSeconds(
-				Integer.valueOf(propertyModel.getObject()));
-			SystemTrayApplicationFrame.getInstance().getApplicationPreferences().put(
-				SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK_IN_SECONDS,
-				getModelObject().getIntervalOfMouseMovementsCheckInSeconds().toString());
+		final SettingsModelBean modelObject = getModelObject();
+		modelObject.setIntervalOfMouseMovementsCheck(parseInterval(
+			txtIntervalOfMouseMovementsCheck, SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+			modelObject.getIntervalOfMouseMovementsCheck()));
+	}
+
+	/**
+	 * Action handler for the text field controlling the maximum interval of checking mouse
+	 * movements while the user is idle
+	 *
+	 * @param actionEvent
+	 *            the action event triggered by text field interaction
+	 */
+	protected void onChangeTxtMaxIntervalOfMouseMovementsCheck(final ActionEvent actionEvent)
+	{
+		final SettingsModelBean modelObject = getModelObject();
+		modelObject.setMaxIntervalOfMouseMovementsCheck(parseInterval(
+			txtMaxIntervalOfMouseMovementsCheck,
+			SettingsExtensions.MAX_INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+			modelObject.getMaxIntervalOfMouseMovementsCheck()));
+	}
+
+	/**
+	 * Resets the edited copy and the components of this panel to the given settings, so changes
+	 * of a canceled dialog are discarded
+	 *
+	 * @param settings
+	 *            the current snapshot of the settings
+	 */
+	public void reset(final SettingsSnapshot settings)
+	{
+		final SettingsModelBean modelObject = getModelObject();
+		modelObject.setXAxis(settings.getXAxis());
+		modelObject.setYAxis(settings.getYAxis());
+		modelObject.setIntervalOfMovement(settings.getIntervalOfMovement());
+		modelObject.setIntervalOfMouseMovementsCheck(settings.getIntervalOfMouseMovementsCheck());
+		modelObject
+			.setMaxIntervalOfMouseMovementsCheck(settings.getMaxIntervalOfMouseMovementsCheck());
+		modelObject.setMoveOnStartup(settings.isMoveOnStartup());
+		cmbVariableX.setSelectedItem(settings.getXAxis());
+		cmbVariableY.setSelectedItem(settings.getYAxis());
+		checkBoxMoveOnStartup.getPropertyModel().setObject(settings.isMoveOnStartup());
+		checkBoxMoveOnStartup.setSelected(settings.isMoveOnStartup());
+		setMillis(txtIntervalOfMovement, settings.getIntervalOfMovement());
+		setMillis(txtIntervalOfMouseMovementsCheck, settings.getIntervalOfMouseMovementsCheck());
+		setMillis(txtMaxIntervalOfMouseMovementsCheck,
+			settings.getMaxIntervalOfMouseMovementsCheck());
+	}
+
+	/**
+	 * Applies the edited settings to the settings model of the given manager, publishes them and
+	 * persists them in the given store in one step. The interval text fields are read again, so
+	 * an edit that was not yet committed with enter or a focus change is applied too. An invalid
+	 * interval is reported in an error dialog, its text field is reverted and the interval keeps
+	 * its previous value
+	 *
+	 * @param mouseMovementManager
+	 *            the manager whose settings are updated
+	 * @param settingsStore
+	 *            the store the settings are persisted in
+	 */
+	public void applySettings(final MouseMovementManager mouseMovementManager,
+		final SettingsStore settingsStore)
+	{
+		final SettingsModelBean modelObject = getModelObject();
+		modelObject.setIntervalOfMovement(parseInterval(txtIntervalOfMovement,
+			SettingsExtensions.INTERVAL_OF_MOVEMENT, modelObject.getIntervalOfMovement()));
+		modelObject.setIntervalOfMouseMovementsCheck(parseInterval(
+			txtIntervalOfMouseMovementsCheck, SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+			modelObject.getIntervalOfMouseMovementsCheck()));
+		modelObject.setMaxIntervalOfMouseMovementsCheck(parseInterval(
+			txtMaxIntervalOfMouseMovementsCheck,
+			SettingsExtensions.MAX_INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+			modelObject.getMaxIntervalOfMouseMovementsCheck()));
+		final StringBuilder errors = new StringBuilder();
+		revertInvalidInterval(txtIntervalOfMovement, modelObject.getIntervalOfMovement(), errors);
+		revertInvalidInterval(txtIntervalOfMouseMovementsCheck,
+			modelObject.getIntervalOfMouseMovementsCheck(), errors);
+		revertInvalidInterval(txtMaxIntervalOfMouseMovementsCheck,
+			modelObject.getMaxIntervalOfMouseMovementsCheck(), errors);
+		if (0 < errors.length())
+		{
+			JOptionPane.showMessageDialog(this, errors + "The previous intervals are kept.",
+				"Invalid interval", JOptionPane.ERROR_MESSAGE);
+		}
+		mouseMovementManager.updateSettings(settingsModelBean -> {
+			settingsModelBean.setXAxis(modelObject.getXAxis());
+			settingsModelBean.setYAxis(modelObject.getYAxis());
+			settingsModelBean.setIntervalOfMovement(modelObject.getIntervalOfMovement());
+			settingsModelBean
+				.setIntervalOfMouseMovementsCheck(modelObject.getIntervalOfMouseMovementsCheck());
+			settingsModelBean.setMaxIntervalOfMouseMovementsCheck(
+				modelObject.getMaxIntervalOfMouseMovementsCheck());
+			settingsModelBean.setMoveOnStartup(modelObject.isMoveOnStartup());
 		});
+		settingsStore.put(SettingsExtensions.X_AXIS, modelObject.getXAxis().toString());
+		settingsStore.put(SettingsExtensions.Y_AXIS, modelObject.getYAxis().toString());
+		settingsStore.put(SettingsExtensions.INTERVAL_OF_MOVEMENT,
+			modelObject.getIntervalOfMovement().toString());
+		settingsStore.put(SettingsExtensions.INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+			modelObject.getIntervalOfMouseMovementsCheck().toString());
+		settingsStore.put(SettingsExtensions.MAX_INTERVAL_OF_MOUSE_MOVEMENTS_CHECK,
+			modelObject.getMaxIntervalOfMouseMovementsCheck().toString());
+		settingsStore.put(SettingsExtensions.MOVE_ON_STARTUP,
+			Boolean.toString(modelObject.isMoveOnStartup()));
+	}
+
+	/**
+	 * Parses the text of the given interval text field in milliseconds. An invalid interval puts
+	 * the text field into an error state with red text and the error as tool tip and keeps the
+	 * given current interval. No dialog is opened, so the focus handlers can call it
+	 *
+	 * @param textField
+	 *            the interval text field
+	 * @param key
+	 *            the key of the interval setting
+	 * @param currentInterval
+	 *            the current interval
+	 * @return the parsed interval or the current interval if the text is invalid
+	 */
+	private Duration parseInterval(final JMTextField textField, final String key,
+		final Duration currentInterval)
+	{
+		final String text = textField.getText();
+		try
+		{
+			final Duration interval = SettingsExtensions.toInterval(key, text, ChronoUnit.MILLIS);
+			textField.getPropertyModel().setObject(text);
+			setError(textField, null);
+			return interval;
+		}
+		catch (IllegalArgumentException ex)
+		{
+			setError(textField, ex.getMessage());
+			return currentInterval;
+		}
+	}
+
+	/**
+	 * Reverts the given interval text field to the given interval if it is in the error state and
+	 * appends its error to the given errors
+	 *
+	 * @param textField
+	 *            the interval text field
+	 * @param interval
+	 *            the interval the text field is reverted to
+	 * @param errors
+	 *            the errors of the reverted text fields
+	 */
+	private static void revertInvalidInterval(final JMTextField textField,
+		final Duration interval, final StringBuilder errors)
+	{
+		final String error = textField.getToolTipText();
+		if (error != null && interval != null)
+		{
+			errors.append(error).append('\n');
+			setMillis(textField, interval);
+		}
+	}
+
+	/**
+	 * Sets or clears the error state of the given text field
+	 *
+	 * @param textField
+	 *            the text field
+	 * @param error
+	 *            the error message or null to clear the error state
+	 */
+	private static void setError(final JMTextField textField, final String error)
+	{
+		textField.setToolTipText(error);
+		textField.setForeground(
+			error != null ? Color.RED : UIManager.getColor("TextField.foreground"));
+	}
+
+	/**
+	 * Sets the given interval in milliseconds as text and property model of the given text field
+	 *
+	 * @param textField
+	 *            the text field
+	 * @param interval
+	 *            the interval
+	 */
+	private static void setMillis(final JMTextField textField, final Duration interval)
+	{
+		final String millis = String.valueOf(interval.toMillis());
+		textField.getPropertyModel().setObject(millis);
+		textField.setText(millis);
+		setError(textField, null);
 	}
 
 	/**
@@ -346,10 +542,13 @@ public class MouseMoveSettingsPanel extends BasePanel<SettingsModelBean>
 		this.add(lblVariableY);
 		this.add(cmbVariableY, "wrap");
 
-		this.add(lblIntervalOfSeconds);
-		this.add(txtIntervalOfSeconds, "wrap");
+		this.add(lblIntervalOfMovement);
+		this.add(txtIntervalOfMovement, "wrap");
+
+		this.add(lblIntervalOfMouseMovementsCheck);
+		this.add(txtIntervalOfMouseMovementsCheck, "wrap");
 
-		this.add(lblIntervalOfMouseMovementsCheckInSeconds);
-		this.add(txtIntervalOfMouseMovementsCheckInSeconds, "wrap");
+		this.add(lblMaxIntervalOfMouseMovementsCheck);
+		this.add(txtMaxIntervalOfMouseMovementsCheck, "wrap");
 	}
 }
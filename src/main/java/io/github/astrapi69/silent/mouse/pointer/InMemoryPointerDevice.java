@@ -0,0 +1,209 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.pointer;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+/**
+ * The class {@link InMemoryPointerDevice} is a deterministic {@link PointerDevice} that keeps the
+ * pointer position in memory. It needs no display, so the
+ * {@link io.github.astrapi69.silent.mouse.robot.MouseMovementManager} can be run, benchmarked and
+ * load-tested headless and at full speed.<br>
+ * <br>
+ * User movement is scripted against the count of samples instead of the wall clock: a scripted
+ * move is applied right before the sample with the given index is taken. With a repeat interval
+ * the script starts over after the given count of samples, which allows endless scenarios like
+ * "the user moves the pointer once every hundred samples". Sampling with
+ * {@link #samplePosition()} does not allocate
+ */
+public class InMemoryPointerDevice implements PointerDevice
+{
+
+	/** The x coordinate of the pointer */
+	private int x;
+
+	/** The y coordinate of the pointer */
+	private int y;
+
+	/** The count of samples taken so far */
+	private long sampleCount;
+
+	/** The count of moves issued so far */
+	private long moveCount;
+
+	/** The sample indices of the scripted user moves in ascending order */
+	private long[] scriptedSamples = new long[0];
+
+	/** The x coordinates of the scripted user moves */
+	private int[] scriptedXCoordinates = new int[0];
+
+	/** The y coordinates of the scripted user moves */
+	private int[] scriptedYCoordinates = new int[0];
+
+	/** The count of samples after which the script starts over, zero if it runs only once */
+	private long repeatInterval;
+
+	/**
+	 * Instantiates a new {@link InMemoryPointerDevice} with the pointer at the origin
+	 */
+	public InMemoryPointerDevice()
+	{
+		this(0, 0);
+	}
+
+	/**
+	 * Instantiates a new {@link InMemoryPointerDevice} with the pointer at the given position
+	 *
+	 * @param x
+	 *            the initial x coordinate
+	 * @param y
+	 *            the initial y coordinate
+	 */
+	public InMemoryPointerDevice(final int x, final int y)
+	{
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * Scripts a user move of the pointer to the given position right before the sample with the
+	 * given index. Scripted moves must be added in ascending order of their sample index
+	 *
+	 * @param sample
+	 *            the zero based index of the sample
+	 * @param x
+	 *            the x coordinate the user moves the pointer to
+	 * @param y
+	 *            the y coordinate the user moves the pointer to
+	 * @return this {@link InMemoryPointerDevice} for chaining
+	 */
+	public synchronized InMemoryPointerDevice scriptUserMove(final long sample, final int x,
+		final int y)
+	{
+		final int length = scriptedSamples.length;
+		if (0 < length && sample <= scriptedSamples[length - 1])
+		{
+			throw new IllegalArgumentException(
+				"Scripted moves must be added in ascending order of their sample index");
+		}
+		scriptedSamples = Arrays.copyOf(scriptedSamples, length + 1);
+		scriptedXCoordinates = Arrays.copyOf(scriptedXCoordinates, length + 1);
+		scriptedYCoordinates = Arrays.copyOf(scriptedYCoordinates, length + 1);
+		scriptedSamples[length] = sample;
+		scriptedXCoordinates[length] = x;
+		scriptedYCoordinates[length] = y;
+		return this;
+	}
+
+	/**
+	 * Sets the count of samples after which the script starts over
+	 *
+	 * @param repeatInterval
+	 *            the count of samples, zero if the script runs only once
+	 * @return this {@link InMemoryPointerDevice} for chaining
+	 */
+	public synchronized InMemoryPointerDevice repeatEvery(final long repeatInterval)
+	{
+		if (repeatInterval < 0)
+		{
+			throw new IllegalArgumentException(
+				"Repeat interval must not be negative but was " + repeatInterval);
+		}
+		this.repeatInterval = repeatInterval;
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized Point getPosition()
+	{
+		applyScriptedUserMove();
+		sampleCount++;
+		return new Point(x, y);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized long samplePosition()
+	{
+		applyScriptedUserMove();
+		sampleCount++;
+		return PointerPosition.pack(x, y);
+	}
+
+	/**
+	 * Applies the scripted user move for the current sample if there is one
+	 */
+	private void applyScriptedUserMove()
+	{
+		if (scriptedSamples.length == 0)
+		{
+			return;
+		}
+		final long sample = repeatInterval == 0 ? sampleCount : sampleCount % repeatInterval;
+		final int index = Arrays.binarySearch(scriptedSamples, sample);
+		if (0 <= index)
+		{
+			x = scriptedXCoordinates[index];
+			y = scriptedYCoordinates[index];
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void moveTo(final int x, final int y)
+	{
+		this.x = x;
+		this.y = y;
+		moveCount++;
+	}
+
+	/**
+	 * Gets the count of samples taken so far
+	 *
+	 * @return the count of samples
+	 */
+	public synchronized long getSampleCount()
+	{
+		return sampleCount;
+	}
+
+	/**
+	 * Gets the count of moves issued so far
+	 *
+	 * @return the count of moves
+	 */
+	public synchronized long getMoveCount()
+	{
+		return moveCount;
+	}
+}
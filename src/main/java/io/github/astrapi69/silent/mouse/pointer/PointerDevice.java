@@ -0,0 +1,66 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.pointer;
+
+import java.awt.Point;
+
+/**
+ * The interface {@link PointerDevice} abstracts the pointer that the
+ * {@link io.github.astrapi69.silent.mouse.robot.MouseMovementManager} samples and moves, so the
+ * manager can run against the real screen or against an in-memory pointer without a display
+ */
+public interface PointerDevice
+{
+
+	/**
+	 * Gets the current position of the pointer
+	 *
+	 * @return the current position
+	 */
+	Point getPosition();
+
+	/**
+	 * Samples the current position of the pointer packed into one {@code long} as described in
+	 * {@link PointerPosition}. Implementations that can read the position without allocating
+	 * should override this method, the default implementation delegates to {@link #getPosition()}
+	 *
+	 * @return the current position packed into one {@code long}
+	 */
+	default long samplePosition()
+	{
+		final Point position = getPosition();
+		return PointerPosition.pack(position.x, position.y);
+	}
+
+	/**
+	 * Moves the pointer to the given position
+	 *
+	 * @param x
+	 *            the x coordinate of the new position
+	 * @param y
+	 *            the y coordinate of the new position
+	 */
+	void moveTo(int x, int y);
+}
@@ -0,0 +1,77 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.pointer;
+
+/**
+ * The class {@link PointerPosition} packs the coordinates of a pointer position into one primitive
+ * {@code long}, so positions can be sampled, stored and compared without allocating a
+ * {@link java.awt.Point}. The x coordinate is kept in the upper and the y coordinate in the lower
+ * 32 bits
+ */
+public final class PointerPosition
+{
+
+	private PointerPosition()
+	{
+	}
+
+	/**
+	 * Packs the given coordinates into one {@code long}
+	 *
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 * @return the packed position
+	 */
+	public static long pack(final int x, final int y)
+	{
+		return ((long)x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Gets the x coordinate of the given packed position
+	 *
+	 * @param position
+	 *            the packed position
+	 * @return the x coordinate
+	 */
+	public static int x(final long position)
+	{
+		return (int)(position >> 32);
+	}
+
+	/**
+	 * Gets the y coordinate of the given packed position
+	 *
+	 * @param position
+	 *            the packed position
+	 * @return the y coordinate
+	 */
+	public static int y(final long position)
+	{
+		return (int)position;
+	}
+}
@@ -0,0 +1,104 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.pointer;
+
+import java.awt.AWTException;
+import java.awt.Point;
+import java.awt.Robot;
+
+import io.github.astrapi69.roboter.MouseExtensions;
+import io.github.astrapi69.silent.mouse.metrics.StartupTrace;
+import lombok.Getter;
+
+/**
+ * The class {@link RobotPointerDevice} is the {@link PointerDevice} of the real screen. The
+ * position is read over AWT and the pointer is moved with a {@link Robot}
+ */
+public class RobotPointerDevice implements PointerDevice
+{
+
+	/** The {@link Robot} instance used for automating mouse movements */
+	@Getter
+	private final Robot robot;
+
+	/**
+	 * Instantiates a new {@link RobotPointerDevice} with a new {@link Robot}
+	 *
+	 * @throws RuntimeException
+	 *             if unable to create a {@link Robot} instance
+	 */
+	public RobotPointerDevice()
+	{
+		this(newRobot());
+	}
+
+	/**
+	 * Instantiates a new {@link RobotPointerDevice} with the given {@link Robot}
+	 *
+	 * @param robot
+	 *            the robot that moves the pointer
+	 */
+	public RobotPointerDevice(final Robot robot)
+	{
+		this.robot = robot;
+	}
+
+	/**
+	 * Creates and returns a new {@link Robot} instance.
+	 *
+	 * @return the {@link Robot} instance
+	 * @throws RuntimeException
+	 *             if unable to create a {@link Robot} instance
+	 */
+	private static Robot newRobot()
+	{
+		try (StartupTrace.Phase phase = StartupTrace.begin("robot"))
+		{
+			return new Robot();
+		}
+		catch (AWTException e)
+		{
+			throw new RuntimeException("Unable to create Robot instance", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Point getPosition()
+	{
+		return MouseExtensions.getMousePosition();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void moveTo(final int x, final int y)
+	{
+		MouseExtensions.setMousePosition(robot, x, y);
+	}
+}
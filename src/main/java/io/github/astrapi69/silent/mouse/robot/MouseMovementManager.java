@@ -24,197 +24,639 @@
  */
 package io.github.astrapi69.silent.mouse.robot;
 
-import java.awt.AWTException;
-import java.awt.Point;
-import java.awt.Robot;
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.NavigableMap;
-import java.util.TreeMap;
+import java.util.Arrays;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
-import io.github.astrapi69.lang.thread.InterruptableThread;
-import io.github.astrapi69.roboter.MouseExtensions;
+import io.github.astrapi69.silent.mouse.engine.ExecutionEngine;
+import io.github.astrapi69.silent.mouse.metrics.MouseMovementMetrics;
 import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.model.SettingsSnapshot;
+import io.github.astrapi69.silent.mouse.pointer.PointerDevice;
+import io.github.astrapi69.silent.mouse.pointer.PointerPosition;
+import io.github.astrapi69.silent.mouse.pointer.RobotPointerDevice;
+import io.github.astrapi69.silent.mouse.track.ActivityHistory;
+import io.github.astrapi69.silent.mouse.track.AdaptivePollingPolicy;
+import io.github.astrapi69.silent.mouse.track.MouseActivityListener;
+import io.github.astrapi69.silent.mouse.track.MouseTrack;
+import io.github.astrapi69.silent.mouse.track.MouseTrackRingBuffer;
+import io.github.astrapi69.silent.mouse.track.SyntheticMoveJournal;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.java.Log;
 
 /**
- * The {@link MouseMovementManager} class manages mouse movements and tracking using {@link Robot}.
- * It allows starting and stopping mouse movement logic independently of any GUI components.
+ * The {@link MouseMovementManager} class manages mouse movements and tracking using a
+ * {@link PointerDevice}, by default the {@link RobotPointerDevice} of the real screen. It allows
+ * starting and stopping mouse movement logic independently of any GUI components. Tracking and
+ * movement run as cancellable scheduled tasks on the shared {@link ExecutionEngine}, so starting
+ * and stopping the manager never creates or leaks threads.<br>
+ * <br>
+ * Both tasks are scheduled against absolute deadlines in the time base of
+ * {@link System#nanoTime()}. The next deadline is derived from the previous deadline and not from
+ * the end of the execution, so processing time does not add up as drift and the actual period
+ * matches the configured one. A task may run up to a tenth of its delay, at most
+ * {@link #MAXIMUM_SLACK_IN_NANOS}, after its deadline, so the tracking, the movement and the
+ * other periodic work of the application share the wake-ups of the scheduler thread.<br>
+ * <br>
+ * The tasks never read the mutable {@link SettingsModelBean}. Every cycle reads one immutable
+ * {@link SettingsSnapshot} with a single volatile load, a new snapshot is published by
+ * {@link #updateSettings(Consumer)}
  */
 @Log
 @Getter
 public class MouseMovementManager
 {
 
-	/** The {@link Robot} instance used for automating mouse movements */
-	private final Robot robot;
+	/** The upper bound of the slack of a task in nanoseconds */
+	public static final long MAXIMUM_SLACK_IN_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+	/** The divisor of the delay of a task that gives the slack of the task */
+	private static final long SLACK_DIVISOR = 10;
+
+	/** The pointer device that is sampled and moved */
+	private final PointerDevice pointerDevice;
 
 	/** The settings model containing configuration for mouse movements */
 	private final SettingsModelBean settingsModelBean;
 
-	/** A map to track mouse positions over time */
-	private final NavigableMap<LocalDateTime, Point> mouseTracks = new TreeMap<>();
+	/**
+	 * The immutable snapshot of the settings the tasks read, published on every change of the
+	 * settings
+	 */
+	@Getter(AccessLevel.NONE)
+	private final AtomicReference<SettingsSnapshot> settings;
+
+	/**
+	 * A bounded ring buffer to track mouse positions over time, written by the tracking task and
+	 * read lock-free by the movement task and any other reader
+	 */
+	private final MouseTrackRingBuffer mouseTracks = new MouseTrackRingBuffer();
+
+	/** The reusable holder for reading the last tracked mouse position in the movement task */
+	@Getter(AccessLevel.NONE)
+	private final MouseTrack lastTrackedMouseTrack = new MouseTrack();
+
+	/** The reusable holder for reading the previous tracked mouse position in the tracking task */
+	@Getter(AccessLevel.NONE)
+	private final MouseTrack previousMouseTrack = new MouseTrack();
+
+	/** The policy that calculates the interval of the tracking task */
+	@Getter(AccessLevel.NONE)
+	private final AdaptivePollingPolicy pollingPolicy = new AdaptivePollingPolicy();
+
+	/**
+	 * The moves of this manager since the last tracked position, they are subtracted when the
+	 * current position is compared with the tracked one
+	 */
+	@Getter(AccessLevel.NONE)
+	private final SyntheticMoveJournal syntheticMoves = new SyntheticMoveJournal();
+
+	/** The runtime metrics of this manager */
+	private final MouseMovementMetrics metrics = new MouseMovementMetrics();
+
+	/** The time series of the samples and nudges with rollups per minute and per hour */
+	private final ActivityHistory activityHistory = new ActivityHistory();
+
+	/**
+	 * The listeners that are notified about samples and nudges, starting with the activity
+	 * history. The array is replaced on every change, so notifying the listeners does not allocate
+	 */
+	@Getter(AccessLevel.NONE)
+	private volatile MouseActivityListener[] activityListeners = { activityHistory };
+
+	/** The engine that executes the tracking and movement tasks */
+	private final ExecutionEngine executionEngine;
+
+	/**
+	 * The lock that guards the lifecycle and the execution of the tasks. A {@link ReentrantLock} is
+	 * used instead of a monitor, so a virtual scheduler thread waiting for it does not pin its
+	 * carrier thread
+	 */
+	@Getter(AccessLevel.NONE)
+	private final ReentrantLock lifecycleLock = new ReentrantLock();
+
+	/** The generation of the current run, incremented on every start and stop */
+	@Getter(AccessLevel.NONE)
+	private long generation;
+
+	/** Flag that indicates if the manager is running */
+	private volatile boolean running;
 
-	/** Thread responsible for executing mouse movements */
-	private InterruptableThread currentExecutionThread;
+	/** The pending task responsible for executing mouse movements */
+	@Getter(AccessLevel.NONE)
+	private Future<?> mouseMovementTask;
 
-	/** Thread responsible for tracking mouse movements */
-	private InterruptableThread mouseTrackThread;
+	/** The pending task responsible for tracking mouse movements */
+	@Getter(AccessLevel.NONE)
+	private Future<?> mouseTrackTask;
+
+	/** The deadline of the next movement cycle in the time base of {@link System#nanoTime()} */
+	@Getter(AccessLevel.NONE)
+	private long movementDeadline;
+
+	/** The deadline of the next tracking in the time base of {@link System#nanoTime()} */
+	@Getter(AccessLevel.NONE)
+	private long trackDeadline;
+
+	/** The slack of the next movement cycle in nanoseconds */
+	@Getter(AccessLevel.NONE)
+	private long movementSlack;
+
+	/** The slack of the next tracking in nanoseconds */
+	@Getter(AccessLevel.NONE)
+	private long trackSlack;
 
 	/**
-	 * Constructs a new {@link MouseMovementManager} with the given settings model.
+	 * Constructs a new {@link MouseMovementManager} with the given settings model that moves the
+	 * pointer of the real screen.
 	 *
 	 * @param settingsModelBean
 	 *            the settings model containing mouse movement configurations
+	 * @throws RuntimeException
+	 *             if unable to create a {@link java.awt.Robot} instance
 	 */
 	public MouseMovementManager(SettingsModelBean settingsModelBean)
 	{
-		this.settingsModelBean = settingsModelBean;
-		this.robot = newRobot();
+		this(settingsModelBean, new RobotPointerDevice());
 	}
 
 	/**
-	 * Creates and returns a new {@link Robot} instance.
+	 * Constructs a new {@link MouseMovementManager} with the given settings model and the given
+	 * pointer device.
 	 *
-	 * @return the {@link Robot} instance
-	 * @throws RuntimeException
-	 *             if unable to create a {@link Robot} instance
+	 * @param settingsModelBean
+	 *            the settings model containing mouse movement configurations
+	 * @param pointerDevice
+	 *            the pointer device that is sampled and moved
+	 */
+	public MouseMovementManager(SettingsModelBean settingsModelBean, PointerDevice pointerDevice)
+	{
+		this.settingsModelBean = settingsModelBean;
+		this.settings = new AtomicReference<>(SettingsSnapshot.of(1, settingsModelBean));
+		this.pointerDevice = pointerDevice;
+		this.executionEngine = ExecutionEngine.getShared(settingsModelBean.getExecutionMode());
+	}
+
+	/**
+	 * Starts the mouse movement and tracking tasks. If the manager is already running the pending
+	 * tasks are cancelled and scheduled again
 	 */
-	private Robot newRobot()
+	public void start()
 	{
+		log.info("Starting mouse movement manager...");
+		lifecycleLock.lock();
 		try
 		{
-			return new Robot();
+			cancelTasks();
+			final long currentGeneration = ++generation;
+			running = true;
+			syntheticMoves.clear();
+			metrics.recordStart();
+			pollingPolicy.reset();
+			final long now = System.nanoTime();
+			scheduleMouseTracking(currentGeneration, now);
+			scheduleMovementCycle(currentGeneration, now);
 		}
-		catch (AWTException e)
+		finally
 		{
-			throw new RuntimeException("Unable to create Robot instance", e);
+			lifecycleLock.unlock();
 		}
+		log.info("Mouse movement manager runs in execution mode "
+			+ executionEngine.getExecutionMode());
 	}
 
 	/**
-	 * Starts the mouse movement and tracking threads.
+	 * Stops the mouse movement and tracking tasks. When this method returns no task of this
+	 * manager is executing and none will be executed until the next start
 	 */
-	public void start()
+	public void stop()
 	{
-		log.info("Starting mouse movement manager...");
-
-		if (currentExecutionThread != null)
+		log.info("Stopping mouse movement manager...");
+		lifecycleLock.lock();
+		try
 		{
-			currentExecutionThread.interrupt();
+			generation++;
+			running = false;
+			cancelTasks();
+			metrics.recordStop();
 		}
-		if (mouseTrackThread != null)
+		finally
 		{
-			mouseTrackThread.interrupt();
+			lifecycleLock.unlock();
 		}
+		log.info("Mouse movement manager stopped, " + executionEngine.getThreadCount()
+			+ " scheduler thread(s) and " + ExecutionEngine.getCarrierThreadCount()
+			+ " carrier thread(s) in use in execution mode " + executionEngine.getExecutionMode());
+	}
 
-		mouseTrackThread = new InterruptableThread()
+	/**
+	 * Gets the current snapshot of the settings
+	 *
+	 * @return the current snapshot of the settings
+	 */
+	public SettingsSnapshot getSettings()
+	{
+		return settings.get();
+	}
+
+	/**
+	 * Updates the settings model with the given patch and publishes a new snapshot of it. If the
+	 * manager is running and an interval changed, the pending tasks are scheduled again with the
+	 * new intervals, the track history is kept
+	 *
+	 * @param patch
+	 *            the patch that is applied to the settings model
+	 */
+	public void updateSettings(final Consumer<SettingsModelBean> patch)
+	{
+		final SettingsSnapshot snapshot;
+		lifecycleLock.lock();
+		try
 		{
-			@Override
-			protected void process()
+			patch.accept(settingsModelBean);
+			final SettingsSnapshot previous = settings.get();
+			snapshot = SettingsSnapshot.of(previous.getVersion() + 1, settingsModelBean);
+			settings.set(snapshot);
+			if (running && isIntervalChanged(previous, snapshot))
 			{
-				while (!isInterrupted())
-				{
-					try
-					{
-						mouseTracks.put(LocalDateTime.now(), MouseExtensions.getMousePosition());
-						Thread.sleep(
-							settingsModelBean.getIntervalOfMouseMovementsCheckInSeconds() * 1000);
-					}
-					catch (InterruptedException ex)
-					{
-						log.log(Level.INFO, "Mouse tracking interrupted: " + ex.getMessage());
-					}
-				}
+				cancelTasks();
+				final long currentGeneration = ++generation;
+				pollingPolicy.reset();
+				final long now = System.nanoTime();
+				scheduleMouseTracking(currentGeneration, now + snapshot.getCheckIntervalInNanos());
+				scheduleMovementCycle(currentGeneration,
+					now + snapshot.getMovementIntervalInNanos());
 			}
-		};
+		}
+		finally
+		{
+			lifecycleLock.unlock();
+		}
+		log.info("Mouse movement manager settings updated to version " + snapshot.getVersion());
+	}
 
-		currentExecutionThread = new InterruptableThread()
+	/**
+	 * Adds the given listener that is notified about the samples and nudges of this manager
+	 *
+	 * @param activityListener
+	 *            the listener to add
+	 */
+	public void addActivityListener(final MouseActivityListener activityListener)
+	{
+		lifecycleLock.lock();
+		try
 		{
-			@Override
-			protected void process()
-			{
-				while (!isInterrupted())
-				{
-					final Map.Entry<LocalDateTime, Point> lastTrackedMousePointEntry = mouseTracks
-						.lastEntry();
-					final Point currentMousePosition = MouseExtensions.getMousePosition();
-
-					if (lastTrackedMousePointEntry != null)
-					{
-						final Point lastTrackedMousePoint = lastTrackedMousePointEntry.getValue();
-						if (lastTrackedMousePoint.equals(currentMousePosition))
-						{
-							moveMouse();
-						}
-						else
-						{
-							sleepDiff();
-						}
-					}
-					else
-					{
-						moveMouse();
-					}
-				}
-			}
-		};
+			final MouseActivityListener[] listeners = Arrays.copyOf(activityListeners,
+				activityListeners.length + 1);
+			listeners[listeners.length - 1] = activityListener;
+			activityListeners = listeners;
+		}
+		finally
+		{
+			lifecycleLock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the given listener
+	 *
+	 * @param activityListener
+	 *            the listener to remove
+	 */
+	public void removeActivityListener(final MouseActivityListener activityListener)
+	{
+		lifecycleLock.lock();
+		try
+		{
+			activityListeners = Arrays.stream(activityListeners)
+				.filter(listener -> listener != activityListener)
+				.toArray(MouseActivityListener[]::new);
+		}
+		finally
+		{
+			lifecycleLock.unlock();
+		}
+	}
 
-		mouseTrackThread.start();
-		currentExecutionThread.start();
+	/**
+	 * Checks if any interval differs between the given snapshots
+	 *
+	 * @param previous
+	 *            the previous snapshot
+	 * @param current
+	 *            the current snapshot
+	 * @return true if any interval differs otherwise false
+	 */
+	private static boolean isIntervalChanged(final SettingsSnapshot previous,
+		final SettingsSnapshot current)
+	{
+		return !previous.getIntervalOfMovement().equals(current.getIntervalOfMovement())
+			|| !previous.getIntervalOfMouseMovementsCheck()
+				.equals(current.getIntervalOfMouseMovementsCheck())
+			|| !previous.getMaxIntervalOfMouseMovementsCheck()
+				.equals(current.getMaxIntervalOfMouseMovementsCheck());
 	}
 
 	/**
-	 * Stops the mouse movement and tracking threads.
+	 * Cancels the pending tasks. Must be called while holding the lifecycle lock
 	 */
-	public void stop()
+	private void cancelTasks()
 	{
-		log.info("Stopping mouse movement manager...");
-		if (currentExecutionThread != null)
+		if (mouseTrackTask != null)
 		{
-			currentExecutionThread.interrupt();
+			mouseTrackTask.cancel(false);
+			mouseTrackTask = null;
 		}
-		if (mouseTrackThread != null)
+		if (mouseMovementTask != null)
 		{
-			mouseTrackThread.interrupt();
+			mouseMovementTask.cancel(false);
+			mouseMovementTask = null;
 		}
 	}
 
 	/**
-	 * Moves the mouse to a new position based on the settings model.
+	 * Tracks the current mouse position and schedules the next tracking. The interval until the
+	 * next tracking is calculated by the {@link AdaptivePollingPolicy}, a position that is
+	 * unchanged or only changed by the synthetic moves of this manager counts as idle
+	 *
+	 * @param taskGeneration
+	 *            the generation of the run that scheduled this task
 	 */
-	private void moveMouse()
+	private void trackMouse(final long taskGeneration)
 	{
-		final Point currentMousePosition = MouseExtensions.getMousePosition();
-		MouseExtensions.setMousePosition(robot,
-			currentMousePosition.x + settingsModelBean.getXAxis(),
-			currentMousePosition.y + settingsModelBean.getYAxis());
+		lifecycleLock.lock();
 		try
 		{
-			Thread.sleep(settingsModelBean.getIntervalOfSeconds() * 1000);
+			if (taskGeneration != generation)
+			{
+				return;
+			}
+			metrics.recordWakeUp(System.nanoTime() - trackDeadline - trackSlack);
+			final SettingsSnapshot snapshot = settings.get();
+			boolean active = true;
+			try
+			{
+				active = trackMousePosition();
+			}
+			catch (RuntimeException ex)
+			{
+				log.log(Level.WARNING, "Mouse tracking failed: " + ex.getMessage(), ex);
+			}
+			final long intervalInNanos = pollingPolicy.nextInterval(active,
+				snapshot.getCheckIntervalInNanos(), snapshot.getMaxCheckIntervalInNanos());
+			scheduleMouseTracking(taskGeneration, nextDeadline(trackDeadline, intervalInNanos));
+		}
+		finally
+		{
+			lifecycleLock.unlock();
+		}
+	}
+
+	/**
+	 * Samples the current mouse position and stores it in the track history
+	 *
+	 * @return true if the sample shows user activity since the previous sample otherwise false
+	 */
+	boolean trackMousePosition()
+	{
+		final long mousePosition = pointerDevice.samplePosition();
+		final int x = PointerPosition.x(mousePosition);
+		final int y = PointerPosition.y(mousePosition);
+		boolean active = true;
+		if (mouseTracks.lastEntry(previousMouseTrack))
+		{
+			active = syntheticMoves.isBased()
+				? !syntheticMoves.isExpected(mousePosition)
+				: !previousMouseTrack.isAt(x, y);
+		}
+		final long timestamp = System.currentTimeMillis();
+		mouseTracks.add(timestamp, x, y);
+		syntheticMoves.rebase(mousePosition);
+		metrics.recordSample(active);
+		for (final MouseActivityListener activityListener : activityListeners)
+		{
+			activityListener.onSample(timestamp, x, y, active);
 		}
-		catch (InterruptedException ex)
+		return active;
+	}
+
+	/**
+	 * Schedules the next tracking at the given deadline with the slack of
+	 * {@link #getSlackInNanos(long)}. Must be called while holding the lifecycle lock
+	 *
+	 * @param taskGeneration
+	 *            the generation of the run that schedules the tracking
+	 * @param deadline
+	 *            the deadline in the time base of {@link System#nanoTime()}
+	 */
+	private void scheduleMouseTracking(final long taskGeneration, final long deadline)
+	{
+		final long delay = deadline - System.nanoTime();
+		trackDeadline = deadline;
+		trackSlack = getSlackInNanos(delay);
+		mouseTrackTask = executionEngine.schedule(() -> trackMouse(taskGeneration), delay,
+			trackSlack, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Falls back to fine-grained tracking after the movement task has seen user activity while the
+	 * tracking backed off. Must be called while holding the lifecycle lock
+	 *
+	 * @param taskGeneration
+	 *            the generation of the current run
+	 * @param snapshot
+	 *            the settings of the current cycle
+	 */
+	private void onActivity(final long taskGeneration, final SettingsSnapshot snapshot)
+	{
+		final long minimumInterval = snapshot.getCheckIntervalInNanos();
+		if (pollingPolicy.isBackedOff(minimumInterval))
 		{
-			log.log(Level.INFO, "Mouse movement interrupted: " + ex.getMessage());
+			pollingPolicy.reset();
+			if (mouseTrackTask != null)
+			{
+				mouseTrackTask.cancel(false);
+			}
+			scheduleMouseTracking(taskGeneration, System.nanoTime() + minimumInterval);
 		}
 	}
 
 	/**
-	 * Sleeps for the difference between the movement interval and the tracking interval.
+	 * Moves the mouse if it was not moved since the last tracking and schedules the next cycle
+	 *
+	 * @param taskGeneration
+	 *            the generation of the run that scheduled this task
 	 */
-	private void sleepDiff()
+	private void executeMovementCycle(final long taskGeneration)
 	{
-		int diff = settingsModelBean.getIntervalOfSeconds()
-			- settingsModelBean.getIntervalOfMouseMovementsCheckInSeconds();
+		lifecycleLock.lock();
 		try
 		{
-			Thread.sleep(diff * 1000);
+			if (taskGeneration != generation)
+			{
+				return;
+			}
+			metrics.recordWakeUp(System.nanoTime() - movementDeadline - movementSlack);
+			final SettingsSnapshot snapshot = settings.get();
+			long intervalInNanos = snapshot.getMovementIntervalInNanos();
+			try
+			{
+				if (!executeDetectionCycle(snapshot))
+				{
+					intervalInNanos = snapshot.getRetryIntervalInNanos();
+					onActivity(taskGeneration, snapshot);
+				}
+			}
+			catch (RuntimeException ex)
+			{
+				log.log(Level.WARNING, "Mouse movement failed: " + ex.getMessage(), ex);
+			}
+			scheduleMovementCycle(taskGeneration, nextDeadline(movementDeadline, intervalInNanos));
+		}
+		finally
+		{
+			lifecycleLock.unlock();
+		}
+	}
+
+	/**
+	 * Executes one detection cycle, the mouse is moved if it was not moved since the last tracking
+	 *
+	 * @return true if the mouse was moved, false if user activity was detected
+	 */
+	boolean executeDetectionCycle()
+	{
+		return executeDetectionCycle(settings.get());
+	}
+
+	/**
+	 * Executes one detection cycle with the given settings, the mouse is moved if it was not moved
+	 * since the last tracking
+	 *
+	 * @param snapshot
+	 *            the settings of the current cycle
+	 * @return true if the mouse was moved, false if user activity was detected
+	 */
+	private boolean executeDetectionCycle(final SettingsSnapshot snapshot)
+	{
+		final long currentMousePosition = pointerDevice.samplePosition();
+		final int x = PointerPosition.x(currentMousePosition);
+		final int y = PointerPosition.y(currentMousePosition);
+		if (isIdle(x, y))
+		{
+			moveMouse(snapshot, x, y);
+			return true;
+		}
+		metrics.recordActivity(true);
+		return false;
+	}
+
+	/**
+	 * Checks if the given mouse position is the last tracked position with the synthetic moves of
+	 * this manager since then applied, which means that the user was idle since the last tracking
+	 *
+	 * @param x
+	 *            the x coordinate of the current mouse position
+	 * @param y
+	 *            the y coordinate of the current mouse position
+	 * @return true if the user was idle or nothing was tracked yet otherwise false
+	 */
+	boolean isIdle(final int x, final int y)
+	{
+		if (!mouseTracks.lastEntry(lastTrackedMouseTrack))
+		{
+			return true;
 		}
-		catch (InterruptedException ex)
+		return syntheticMoves.isBased()
+			? syntheticMoves.isExpected(PointerPosition.pack(x, y))
+			: lastTrackedMouseTrack.isAt(x, y);
+	}
+
+	/**
+	 * Schedules the next movement cycle at the given deadline with the slack of
+	 * {@link #getSlackInNanos(long)}. Must be called while holding the lifecycle lock
+	 *
+	 * @param taskGeneration
+	 *            the generation of the run that schedules the movement cycle
+	 * @param deadline
+	 *            the deadline in the time base of {@link System#nanoTime()}
+	 */
+	private void scheduleMovementCycle(final long taskGeneration, final long deadline)
+	{
+		final long delay = deadline - System.nanoTime();
+		movementDeadline = deadline;
+		movementSlack = getSlackInNanos(delay);
+		mouseMovementTask = executionEngine.schedule(() -> executeMovementCycle(taskGeneration),
+			delay, movementSlack, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Gets the slack of a task with the given delay, a tenth of the delay but at most
+	 * {@link #MAXIMUM_SLACK_IN_NANOS}. A task that is due at once has no slack
+	 *
+	 * @param delayInNanos
+	 *            the delay of the task in nanoseconds
+	 * @return the slack of the task in nanoseconds
+	 */
+	private static long getSlackInNanos(final long delayInNanos)
+	{
+		return Math.min(Math.max(0, delayInNanos) / SLACK_DIVISOR, MAXIMUM_SLACK_IN_NANOS);
+	}
+
+	/**
+	 * Calculates the next deadline from the previous deadline. If the previous deadline was missed
+	 * by more than the given interval, for instance after a suspend of the system, the next
+	 * deadline is the current time instead of a burst of missed executions
+	 *
+	 * @param previousDeadline
+	 *            the previous deadline in the time base of {@link System#nanoTime()}
+	 * @param intervalInNanos
+	 *            the interval between the deadlines in nanoseconds
+	 * @return the next deadline in the time base of {@link System#nanoTime()}
+	 */
+	private static long nextDeadline(final long previousDeadline, final long intervalInNanos)
+	{
+		final long now = System.nanoTime();
+		final long deadline = previousDeadline + intervalInNanos;
+		return deadline - now < 0 ? now : deadline;
+	}
+
+	/**
+	 * Moves the mouse to a new position based on the settings model.
+	 */
+	void moveMouse()
+	{
+		final long currentMousePosition = pointerDevice.samplePosition();
+		moveMouse(settings.get(), PointerPosition.x(currentMousePosition),
+			PointerPosition.y(currentMousePosition));
+	}
+
+	/**
+	 * Moves the mouse from the given position to a new position based on the given settings.
+	 *
+	 * @param snapshot
+	 *            the settings of the current cycle
+	 * @param x
+	 *            the x coordinate of the current mouse position
+	 * @param y
+	 *            the y coordinate of the current mouse position
+	 */
+	private void moveMouse(final SettingsSnapshot snapshot, final int x, final int y)
+	{
+		final int targetX = x + snapshot.getXAxis();
+		final int targetY = y + snapshot.getYAxis();
+		pointerDevice.moveTo(targetX, targetY);
+		syntheticMoves.record(PointerPosition.pack(x, y), PointerPosition.pack(targetX, targetY));
+		final long timestamp = System.currentTimeMillis();
+		metrics.recordNudge(timestamp);
+		for (final MouseActivityListener activityListener : activityListeners)
 		{
-			log.log(Level.INFO, "Sleep interrupted: " + ex.getMessage());
+			activityListener.onNudge(timestamp, targetX, targetY);
 		}
 	}
 }
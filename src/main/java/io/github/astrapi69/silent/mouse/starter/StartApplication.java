@@ -25,12 +25,24 @@
 package io.github.astrapi69.silent.mouse.starter;
 
 import java.awt.GraphicsEnvironment;
-
-import javax.swing.JFrame;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
 
 import io.github.astrapi69.icon.ImageIconPreloader;
-import io.github.astrapi69.silent.mouse.frame.SystemTrayApplicationFrame;
+import io.github.astrapi69.silent.mouse.control.ControlServer;
+import io.github.astrapi69.silent.mouse.control.SettingsFileWatcher;
+import io.github.astrapi69.silent.mouse.extension.SettingsExtensions;
+import io.github.astrapi69.silent.mouse.frame.SystemTrayApplication;
+import io.github.astrapi69.silent.mouse.journal.ActivityJournal;
+import io.github.astrapi69.silent.mouse.metrics.MetricsHttpServer;
+import io.github.astrapi69.silent.mouse.metrics.MouseMovementManagerJmx;
+import io.github.astrapi69.silent.mouse.metrics.StartupTrace;
 import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.pointer.InMemoryPointerDevice;
+import io.github.astrapi69.silent.mouse.pointer.PointerDevice;
+import io.github.astrapi69.silent.mouse.pointer.RobotPointerDevice;
 import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
 import io.github.astrapisixtynine.easy.logger.LoggingConfiguration;
 import lombok.Getter;
@@ -45,6 +57,9 @@ public class StartApplication
 	@Getter
 	private static boolean running = false;
 
+	/** The latch that is released when the service stops */
+	private static final CountDownLatch STOPPED = new CountDownLatch(1);
+
 	/**
 	 * Main method to start the application in standalone mode
 	 *
@@ -53,11 +68,20 @@ public class StartApplication
 	 */
 	public static void main(final String[] args)
 	{
-		LoggingConfiguration.setup();
+		try (StartupTrace.Phase phase = StartupTrace.begin("logging"))
+		{
+			LoggingConfiguration.setup();
+		}
+		if (args.length > 0 && "train".equalsIgnoreCase(args[0]))
+		{
+			train(args); // Training run for the class data sharing archive
+			return;
+		}
 		boolean headless = GraphicsEnvironment.isHeadless();
 		if (headless || args.length > 0 && "service".equalsIgnoreCase(args[0]))
 		{
-			start(); // Service mode
+			start(newSettingsModelBean(args)); // Service mode
+			awaitStop();
 		}
 		else
 		{
@@ -66,43 +90,272 @@ public class StartApplication
 	}
 
 	/**
-	 * Starts the service
+	 * Creates the settings for the service mode. The settings are loaded from the preferences that
+	 * the settings panel persists and are overridden by environment variables like
+	 * <code>SILENT_MOUSE_INTERVAL_OF_MOVEMENT=PT2M</code> and then by arguments like
+	 * <code>--intervalOfMovement=120s</code>. Durations are ISO-8601 durations or numbers with a
+	 * unit like <code>500ms</code> or <code>2m</code>, a plain number is read as seconds. An
+	 * argument without a value selects the execution mode, for instance
+	 * <code>service virtual</code>. Invalid overrides are logged and ignored. Neither the frame nor
+	 * any tray class is loaded
+	 *
+	 * @param args
+	 *            the arguments passed to the application
+	 * @return the settings for the service mode
+	 */
+	static SettingsModelBean newSettingsModelBean(final String[] args)
+	{
+		try (StartupTrace.Phase phase = StartupTrace.begin("preferences"))
+		{
+			return newSettingsModelBean(args, System.getenv());
+		}
+	}
+
+	/**
+	 * Creates the settings for the service mode from the preferences, the given environment and
+	 * the given arguments
+	 *
+	 * @param args
+	 *            the arguments passed to the application
+	 * @param environment
+	 *            the environment variables
+	 * @return the settings for the service mode
+	 */
+	private static SettingsModelBean newSettingsModelBean(final String[] args,
+		final Map<String, String> environment)
+	{
+		final SettingsModelBean settingsModelBean = SettingsExtensions
+			.setModelFromPreferences(SettingsExtensions.getApplicationPreferences());
+		for (final String key : SettingsExtensions.SETTING_KEYS)
+		{
+			final String name = SettingsExtensions.toEnvironmentVariableName(key);
+			final String value = environment.get(name);
+			if (value != null)
+			{
+				setValue(settingsModelBean, key, value, name);
+			}
+		}
+		int first = 0 < args.length && "train".equalsIgnoreCase(args[0]) ? 1 : 0;
+		first += first < args.length && "service".equalsIgnoreCase(args[first]) ? 1 : 0;
+		for (int i = first; i < args.length; i++)
+		{
+			final String argument = args[i].startsWith("--") ? args[i].substring(2) : args[i];
+			final int equals = argument.indexOf('=');
+			if (equals < 0)
+			{
+				setValue(settingsModelBean, SettingsExtensions.EXECUTION_MODE, argument, args[i]);
+			}
+			else
+			{
+				setValue(settingsModelBean, argument.substring(0, equals),
+					argument.substring(equals + 1), args[i]);
+			}
+		}
+		return settingsModelBean;
+	}
+
+	/**
+	 * Sets the setting with the given key to the given value, an invalid value is logged and
+	 * ignored
+	 *
+	 * @param settingsModelBean
+	 *            the settings
+	 * @param key
+	 *            the key of the setting
+	 * @param value
+	 *            the new value as string
+	 * @param source
+	 *            the argument or environment variable the value comes from
+	 */
+	private static void setValue(final SettingsModelBean settingsModelBean, final String key,
+		final String value, final String source)
+	{
+		try
+		{
+			SettingsExtensions.setValue(settingsModelBean, key, value);
+		}
+		catch (RuntimeException e)
+		{
+			log.warning("Ignoring override '" + source + "': " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Starts the service with the persisted settings
 	 */
 	public static void start()
 	{
-		log.info("Service started...");
-		SettingsModelBean settingsModelBean = SettingsModelBean.builder().intervalOfSeconds(180)
-			.intervalOfMouseMovementsCheckInSeconds(90).xAxis(1).yAxis(1).moveOnStartup(true)
-			.build();
+		start(newSettingsModelBean(new String[0]));
+	}
 
-		MouseMovementManager manager = new MouseMovementManager(settingsModelBean);
+	/**
+	 * Starts the service with the given settings
+	 *
+	 * @param settingsModelBean
+	 *            the settings of the service
+	 */
+	public static void start(final SettingsModelBean settingsModelBean)
+	{
+		start(settingsModelBean, new RobotPointerDevice());
+	}
+
+	/**
+	 * Starts the service with the given settings on the given pointer device
+	 *
+	 * @param settingsModelBean
+	 *            the settings of the service
+	 * @param pointerDevice
+	 *            the pointer device the manager reads and moves
+	 */
+	static void start(final SettingsModelBean settingsModelBean, final PointerDevice pointerDevice)
+	{
+		log.info("Service started...");
+		final MouseMovementManager manager;
+		try (StartupTrace.Phase phase = StartupTrace.begin("manager"))
+		{
+			manager = new MouseMovementManager(settingsModelBean, pointerDevice);
+		}
+		final MetricsHttpServer metricsHttpServer;
+		final ControlServer controlServer;
+		final SettingsFileWatcher settingsFileWatcher;
+		final ActivityJournal activityJournal;
+		try (StartupTrace.Phase phase = StartupTrace.begin("services"))
+		{
+			MouseMovementManagerJmx.register(manager);
+			metricsHttpServer = MetricsHttpServer.startIfEnabled(manager);
+			controlServer = ControlServer.startIfEnabled(manager);
+			settingsFileWatcher = SettingsFileWatcher.startIfEnabled(manager);
+			activityJournal = ActivityJournal.openIfEnabled(manager);
+		}
 
 		Runtime.getRuntime().addShutdownHook(new Thread(manager::stop));
+		if (metricsHttpServer != null)
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(metricsHttpServer::stop));
+		}
+		if (controlServer != null)
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(controlServer::close));
+		}
+		if (settingsFileWatcher != null)
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(settingsFileWatcher::close));
+		}
+		if (activityJournal != null)
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(activityJournal::close));
+		}
 		Runtime.getRuntime().addShutdownHook(new Thread(StartApplication::stop));
 
 		manager.start();
 		running = true;
+		StartupTrace.finish("start");
 	}
 
 	/**
-	 * Runs the application in standalone mode
+	 * Blocks until the service is stopped, at the latest by the shutdown hook. All threads of the
+	 * service are daemon or virtual threads, so without this the JVM would exit as soon as the
+	 * main method returns
+	 */
+	public static void awaitStop()
+	{
+		try
+		{
+			STOPPED.await();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Runs the application in standalone mode. Only the system tray is set up, the main frame is
+	 * created when it is shown the first time
 	 */
 	public static void run()
+	{
+		run(SystemTrayApplication::new);
+	}
+
+	/**
+	 * Runs the application in standalone mode with the application of the given factory
+	 *
+	 * @param applicationFactory
+	 *            the factory of the application
+	 */
+	static void run(final Supplier<SystemTrayApplication> applicationFactory)
 	{
 		log.info("Application started in standalone mode.");
-		ImageIconPreloader.loadIcon("io/github/astrapi69/silk/icons/anchor.png", "Keep moving");
-		SystemTrayApplicationFrame frame = new SystemTrayApplicationFrame();
-		frame.setExtendedState(JFrame.ICONIFIED);
-		frame.pack();
-		frame.setVisible(false);
+		try (StartupTrace.Phase phase = StartupTrace.begin("icon"))
+		{
+			ImageIconPreloader.loadIcon("io/github/astrapi69/silk/icons/anchor.png",
+				"Keep moving");
+		}
+		try (StartupTrace.Phase phase = StartupTrace.begin("application"))
+		{
+			applicationFactory.get();
+		}
 		running = true;
+		final Runtime runtime = Runtime.getRuntime();
+		log.info("Tray ready " + ManagementFactory.getRuntimeMXBean().getUptime()
+			+ " ms after the start of the JVM, "
+			+ (runtime.totalMemory() - runtime.freeMemory()) / 1024 + " KB heap used");
+		StartupTrace.finish("run");
+	}
+
+	/**
+	 * Runs the startup path once and exits, so that a JVM launched with
+	 * <code>-XX:ArchiveClassesAtExit=silent-mouse.jsa</code> dumps the loaded classes of Swing,
+	 * Dorkbox and the component libraries into a class data sharing archive. Later launches map
+	 * the archive with <code>-XX:SharedArchiveFile=silent-mouse.jsa</code>, the scripts
+	 * <code>start.sh</code> and <code>silent-mouse.service</code> do that when it exists.<br>
+	 * <br>
+	 * <code>train</code> exercises the standalone mode including the lazily created panels,
+	 * <code>train service</code> or a headless environment exercises the service mode. The
+	 * manager is started and stopped once, so the classes of the scheduler are archived too. It
+	 * moves an {@link InMemoryPointerDevice}, so a training run never moves the real pointer
+	 *
+	 * @param args
+	 *            the arguments passed to the application, the first one is <code>train</code>
+	 */
+	public static void train(final String[] args)
+	{
+		log.info("Training run started...");
+		final boolean service = GraphicsEnvironment.isHeadless()
+			|| args.length > 1 && "service".equalsIgnoreCase(args[1]);
+		if (service)
+		{
+			start(newSettingsModelBean(args), new InMemoryPointerDevice());
+		}
+		else
+		{
+			run(() -> new SystemTrayApplication()
+			{
+				@Override
+				protected MouseMovementManager newMouseMovementManager(
+					final SettingsModelBean settingsModelBean)
+				{
+					return new MouseMovementManager(settingsModelBean, new InMemoryPointerDevice());
+				}
+			});
+			final SystemTrayApplication application = SystemTrayApplication.getInstance();
+			application.getMouseMoveSettingsPanel();
+			application.getFrame();
+			application.getMouseMovementManager().start();
+			application.getMouseMovementManager().stop();
+			application.getSystemTrayHandler().shutdown();
+		}
+		log.info("Training run finished, exiting");
+		System.exit(0);
 	}
 
 	/**
-	 * Stops the service
+	 * Stops the service and releases the threads that wait in {@link #awaitStop()}
 	 */
 	public static void stop()
 	{
+		STOPPED.countDown();
 		if (!running)
 		{
 			log.info("Service is already stopped.");
@@ -0,0 +1,231 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.store;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+import io.github.astrapi69.silent.mouse.engine.ExecutionEngine;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+/**
+ * The class {@link SettingsStore} is a write-behind store for the settings in the
+ * {@link Preferences}. Changes are only collected in memory, so the caller, usually the event
+ * dispatch thread, never blocks on disk I/O. A burst of changes is coalesced, only the last value
+ * of every key is kept, and written with one flush of the preferences after a short quiet period.
+ * The flush is triggered by the shared {@link ExecutionEngine} and may be deferred by
+ * {@link #FLUSH_SLACK} to share a wake-up with the other periodic tasks. The blocking write runs
+ * on its own virtual thread, so it never delays the tasks of the engine. {@link #close()} flushes
+ * pending changes and must be called on shutdown
+ */
+@Log
+public class SettingsStore implements Closeable
+{
+
+	/** The default period without changes after which the changes are flushed */
+	public static final Duration DEFAULT_QUIET_PERIOD = Duration.ofMillis(500);
+
+	/** The time a flush may be deferred beyond the quiet period */
+	public static final Duration FLUSH_SLACK = Duration.ofSeconds(1);
+
+	/** The name of the virtual threads that flush the changes */
+	public static final String FLUSH_THREAD_NAME = "silent-mouse-settings-flush";
+
+	/** The preferences the changes are written to */
+	@Getter
+	private final Preferences preferences;
+
+	/** The period without changes after which the changes are flushed */
+	@Getter
+	private final Duration quietPeriod;
+
+	/** The pending changes by their keys, guarded by the monitor of this map */
+	private final Map<String, String> pendingChanges = new LinkedHashMap<>();
+
+	/** The lock that serializes the flushes */
+	private final ReentrantLock flushLock = new ReentrantLock();
+
+	/** The engine that runs the delayed flushes */
+	private final ExecutionEngine executionEngine;
+
+	/** The scheduled flush, guarded by the monitor of the pending changes */
+	private Future<?> scheduledFlush;
+
+	/** Flag that indicates if the store is closed, guarded by the monitor of the pending changes */
+	private boolean closed;
+
+	/**
+	 * Instantiates a new {@link SettingsStore} with the {@link #DEFAULT_QUIET_PERIOD}
+	 *
+	 * @param preferences
+	 *            the preferences the changes are written to
+	 */
+	public SettingsStore(final Preferences preferences)
+	{
+		this(preferences, DEFAULT_QUIET_PERIOD);
+	}
+
+	/**
+	 * Instantiates a new {@link SettingsStore} with the {@link #DEFAULT_QUIET_PERIOD} whose
+	 * flushes are scheduled on the given engine
+	 *
+	 * @param preferences
+	 *            the preferences the changes are written to
+	 * @param executionEngine
+	 *            the engine that runs the delayed flushes
+	 */
+	public SettingsStore(final Preferences preferences, final ExecutionEngine executionEngine)
+	{
+		this(preferences, DEFAULT_QUIET_PERIOD, executionEngine);
+	}
+
+	/**
+	 * Instantiates a new {@link SettingsStore} whose flushes are scheduled on the shared engine
+	 *
+	 * @param preferences
+	 *            the preferences the changes are written to
+	 * @param quietPeriod
+	 *            the period without changes after which the changes are flushed
+	 */
+	public SettingsStore(final Preferences preferences, final Duration quietPeriod)
+	{
+		this(preferences, quietPeriod, ExecutionEngine.getShared());
+	}
+
+	/**
+	 * Instantiates a new {@link SettingsStore}
+	 *
+	 * @param preferences
+	 *            the preferences the changes are written to
+	 * @param quietPeriod
+	 *            the period without changes after which the changes are flushed
+	 * @param executionEngine
+	 *            the engine that runs the delayed flushes
+	 */
+	public SettingsStore(final Preferences preferences, final Duration quietPeriod,
+		final ExecutionEngine executionEngine)
+	{
+		this.preferences = preferences;
+		this.quietPeriod = quietPeriod;
+		this.executionEngine = executionEngine;
+	}
+
+	/**
+	 * Stores the given value for the given key. The value is written with the next flush, a later
+	 * value for the same key replaces it. This method does not block on disk I/O
+	 *
+	 * @param key
+	 *            the key of the setting
+	 * @param value
+	 *            the value of the setting
+	 */
+	public void put(final String key, final String value)
+	{
+		synchronized (pendingChanges)
+		{
+			pendingChanges.put(key, value);
+			if (scheduledFlush != null)
+			{
+				scheduledFlush.cancel(false);
+			}
+			if (!closed)
+			{
+				scheduledFlush = executionEngine.schedule(this::startFlush, quietPeriod.toNanos(),
+					FLUSH_SLACK.toNanos(), TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Starts a flush of the pending changes on a new virtual thread, so the blocking write does not
+	 * run on the thread of the engine
+	 */
+	private void startFlush()
+	{
+		Thread.ofVirtual().name(FLUSH_THREAD_NAME).start(this::flush);
+	}
+
+	/**
+	 * Writes all pending changes to the preferences and flushes them to the backing store in one
+	 * step
+	 */
+	public void flush()
+	{
+		flushLock.lock();
+		try
+		{
+			final Map<String, String> changes;
+			synchronized (pendingChanges)
+			{
+				if (pendingChanges.isEmpty())
+				{
+					return;
+				}
+				changes = new LinkedHashMap<>(pendingChanges);
+				pendingChanges.clear();
+				scheduledFlush = null;
+			}
+			changes.forEach(preferences::put);
+			preferences.flush();
+			log.fine("Flushed " + changes.size() + " settings change(s)");
+		}
+		catch (BackingStoreException | RuntimeException ex)
+		{
+			log.log(Level.WARNING, "Settings could not be flushed: " + ex.getMessage(), ex);
+		}
+		finally
+		{
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Flushes the pending changes and stops the delayed flushes. Changes that are stored after this
+	 * method was called are written with the next explicit {@link #flush()}
+	 */
+	@Override
+	public void close()
+	{
+		synchronized (pendingChanges)
+		{
+			if (scheduledFlush != null)
+			{
+				scheduledFlush.cancel(false);
+				scheduledFlush = null;
+			}
+			closed = true;
+		}
+		flush();
+	}
+}
@@ -24,9 +24,6 @@
  */
 package io.github.astrapi69.silent.mouse.system.tray;
 
-import java.io.IOException;
-import java.net.URISyntaxException;
-
 import javax.swing.JOptionPane;
 
 import dorkbox.systemTray.MenuItem;
@@ -35,11 +32,14 @@ import dorkbox.systemTray.SystemTray;
 import io.github.astrapi69.icon.ImageIconPreloader;
 import io.github.astrapi69.model.BaseModel;
 import io.github.astrapi69.net.ip.IpInfo;
-import io.github.astrapi69.net.ip.IpInfoExtensions;
-import io.github.astrapi69.silent.mouse.frame.SystemTrayApplicationFrame;
+import io.github.astrapi69.silent.mouse.frame.SystemTrayApplication;
 import io.github.astrapi69.silent.mouse.i18n.Messages;
+import io.github.astrapi69.silent.mouse.metrics.StartupTrace;
 import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.network.IpInfoCache;
+import io.github.astrapi69.silent.mouse.network.NetworkChangeWatcher;
 import io.github.astrapi69.silent.mouse.panel.IpInfoPanel;
+import io.github.astrapi69.silent.mouse.panel.MouseMoveSettingsPanel;
 import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
 import io.github.astrapi69.swing.dialog.JOptionPaneExtensions;
 import io.github.astrapi69.swing.panel.info.AppInfoPanel;
@@ -56,7 +56,12 @@ public class DorkboxSystemTrayHandler implements SystemTrayHandler
 
 	MenuItem startItem;
 	MenuItem stopItem;
-	IpInfo ipInfo;
+	/** The cache of the IP information, refreshed in the background */
+	IpInfoCache ipInfoCache = new IpInfoCache();
+	/** The watcher that invalidates the IP information when the network changes */
+	NetworkChangeWatcher networkChangeWatcher;
+	/** The panel of the about dialog, created on first use */
+	AppInfoPanel appInfoPanel;
 	/**
 	 * The {@link SystemTray} instance used to manage the system tray menu and status
 	 */
@@ -74,9 +79,12 @@ public class DorkboxSystemTrayHandler implements SystemTrayHandler
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void initialize(SystemTrayApplicationFrame frame, SettingsModelBean settingsModelBean)
+	public void initialize(SystemTrayApplication application, SettingsModelBean settingsModelBean)
 	{
-		systemTray = SystemTray.get();
+		try (StartupTrace.Phase phase = StartupTrace.begin("systemTray"))
+		{
+			systemTray = SystemTray.get();
+		}
 		if (systemTray == null)
 		{
 			throw new RuntimeException("Unable to load SystemTray!");
@@ -85,6 +93,9 @@ public class DorkboxSystemTrayHandler implements SystemTrayHandler
 		systemTray.setImage(
 			ImageIconPreloader.getIcon("io/github/astrapi69/silk/icons/anchor.png").getImage());
 		systemTray.setStatus("Initializing...");
+		networkChangeWatcher = new NetworkChangeWatcher(ipInfoCache,
+			mouseMovementManager.getExecutionEngine());
+		networkChangeWatcher.start();
 
 		startItem = new MenuItem("Start");
 		stopItem = new MenuItem("Stop");
@@ -105,33 +116,20 @@ public class DorkboxSystemTrayHandler implements SystemTrayHandler
 		}
 
 		settingsItem.setCallback(e -> {
-			int option = JOptionPaneExtensions.getInfoDialogWithOkCancelButton(
-				frame.getMouseMoveSettingsPanel(), "Settings",
-				frame.getMouseMoveSettingsPanel().getCmbVariableX());
+			final MouseMoveSettingsPanel settingsPanel = application.getMouseMoveSettingsPanel();
+			settingsPanel.reset(mouseMovementManager.getSettings());
+			int option = JOptionPaneExtensions.getInfoDialogWithOkCancelButton(settingsPanel,
+				"Settings", settingsPanel.getCmbVariableX());
 			if (option == JOptionPane.OK_OPTION)
 			{
-				String text = frame.getMouseMoveSettingsPanel().getTxtIntervalOfSeconds().getText();
-				if (text != null)
-				{
-					settingsModelBean.setIntervalOfSeconds(Integer.valueOf(text));
-				}
-				frame.getModelObject()
-					.setSettingsModelBean(frame.getMouseMoveSettingsPanel().getModelObject());
+				settingsPanel.applySettings(mouseMovementManager, application.getSettingsStore());
 			}
 		});
 
-		aboutItem.setCallback(e -> {
-			InfoModelBean infoModelBean = InfoModelBean.builder().applicationName("silent mouse")
-				.labelApplicationName("Application name:").labelCopyright("Copyright:")
-				.copyright("Asterios Raptis").labelVersion("Version:")
-				.version(Messages.getString("InfoJPanel.version.value"))
-				.licence("This Software is licensed under the MIT Licence").build();
-			AppInfoPanel appInfoPanel = new AppInfoPanel(BaseModel.of(infoModelBean));
-			JOptionPaneExtensions.getInfoDialogWithOkCancelButton(appInfoPanel, "About", null);
-		});
+		aboutItem.setCallback(e -> JOptionPaneExtensions
+			.getInfoDialogWithOkCancelButton(getAppInfoPanel(), "About", null));
 
-		stopItem.setEnabled(frame.getMouseMovementManager().getCurrentExecutionThread() != null
-			&& !frame.getMouseMovementManager().getCurrentExecutionThread().isInterrupted());
+		stopItem.setEnabled(application.getMouseMovementManager().isRunning());
 
 		stopItem.setCallback(e -> {
 			stopMoving(stopItem, startItem);
@@ -144,20 +142,9 @@ public class DorkboxSystemTrayHandler implements SystemTrayHandler
 		});
 
 		networkInfoItem.setCallback(e -> {
-			try
-			{
-				IpInfoPanel ipInfoPanel = new IpInfoPanel(BaseModel.of(getIpInfo()));
-				JOptionPaneExtensions.getInfoDialogWithOkCancelButton(ipInfoPanel, "IP Information",
-					null);
-			}
-			catch (IOException ex)
-			{
-				throw new RuntimeException(ex);
-			}
-			catch (URISyntaxException ex)
-			{
-				throw new RuntimeException(ex);
-			}
+			IpInfoPanel ipInfoPanel = new IpInfoPanel(BaseModel.of(getIpInfo()));
+			JOptionPaneExtensions.getInfoDialogWithOkCancelButton(ipInfoPanel, "IP Information",
+				null);
 		});
 
 		systemTray.getMenu().add(aboutItem).setShortcut('b');
@@ -172,16 +159,35 @@ public class DorkboxSystemTrayHandler implements SystemTrayHandler
 		systemTray.setStatus("Ready");
 	}
 
-	public IpInfo getIpInfo() throws IOException, URISyntaxException
+	/**
+	 * Gets the panel of the about dialog. The panel is created on first use and reused afterwards
+	 *
+	 * @return the panel of the about dialog
+	 */
+	AppInfoPanel getAppInfoPanel()
 	{
-		if (this.ipInfo == null)
+		if (appInfoPanel == null)
 		{
-			this.ipInfo = IpInfo.builder().localIPAddress(IpInfoExtensions.getLocalIPAddress())
-				.routerIPAddress(IpInfoExtensions.getRouterIPAddress())
-				.externalIPAddress(IpInfoExtensions.getExternalIPAddress())
-				.localNetworkIPAddress(IpInfoExtensions.getLocalNetworkIPAddress()).build();
+			InfoModelBean infoModelBean = InfoModelBean.builder().applicationName("silent mouse")
+				.labelApplicationName("Application name:").labelCopyright("Copyright:")
+				.copyright("Asterios Raptis").labelVersion("Version:")
+				.version(Messages.getString("InfoJPanel.version.value"))
+				.licence("This Software is licensed under the MIT Licence").build();
+			appInfoPanel = new AppInfoPanel(BaseModel.of(infoModelBean));
 		}
-		return this.ipInfo;
+		return appInfoPanel;
+	}
+
+	/**
+	 * Gets the cached IP information. The addresses are looked up when the IP information is
+	 * requested for the first time, that call waits for them at most for the lookup timeout. An
+	 * expired entry is refreshed in the background, so later calls return at once
+	 *
+	 * @return the cached IP information
+	 */
+	public IpInfo getIpInfo()
+	{
+		return ipInfoCache.get();
 	}
 
 	/**
@@ -190,6 +196,10 @@ public class DorkboxSystemTrayHandler implements SystemTrayHandler
 	@Override
 	public void shutdown()
 	{
+		if (networkChangeWatcher != null)
+		{
+			networkChangeWatcher.close();
+		}
 		if (systemTray != null)
 		{
 			systemTray.shutdown();
@@ -40,9 +40,11 @@ import javax.swing.JPopupMenu;
 import javax.swing.SwingUtilities;
 
 import io.github.astrapi69.icon.ImageIconPreloader;
-import io.github.astrapi69.silent.mouse.frame.SystemTrayApplicationFrame;
+import io.github.astrapi69.silent.mouse.frame.SystemTrayApplication;
 import io.github.astrapi69.silent.mouse.i18n.Messages;
+import io.github.astrapi69.silent.mouse.metrics.StartupTrace;
 import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.panel.MouseMoveSettingsPanel;
 import io.github.astrapi69.silent.mouse.robot.MouseMovementManager;
 import lombok.extern.java.Log;
 
@@ -141,14 +143,17 @@ public class JavaSystemTrayHandler implements SystemTrayHandler
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void initialize(SystemTrayApplicationFrame frame, SettingsModelBean settingsModelBean)
+	public void initialize(SystemTrayApplication application, SettingsModelBean settingsModelBean)
 	{
 		if (!SystemTray.isSupported())
 		{
 			throw new RuntimeException("SystemTray is not supported on this platform.");
 		}
 
-		systemTray = SystemTray.getSystemTray();
+		try (StartupTrace.Phase phase = StartupTrace.begin("systemTray"))
+		{
+			systemTray = SystemTray.getSystemTray();
+		}
 		Image iconImage = ImageIconPreloader.getIcon("io/github/astrapi69/silk/icons/anchor.png")
 			.getImage();
 
@@ -168,24 +173,20 @@ public class JavaSystemTrayHandler implements SystemTrayHandler
 
 		// Settings menu item
 		settingsItem.addActionListener(e -> SwingUtilities.invokeLater(() -> {
-			int option = JOptionPane.showConfirmDialog(frame, frame.getMouseMoveSettingsPanel(),
-				"Settings", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+			final MouseMoveSettingsPanel settingsPanel = application.getMouseMoveSettingsPanel();
+			settingsPanel.reset(mouseMovementManager.getSettings());
+			int option = JOptionPane.showConfirmDialog(null, settingsPanel, "Settings",
+				JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
 
 			if (option == JOptionPane.OK_OPTION)
 			{
-				String text = frame.getMouseMoveSettingsPanel().getTxtIntervalOfSeconds().getText();
-				if (text != null)
-				{
-					settingsModelBean.setIntervalOfSeconds(Integer.parseInt(text));
-				}
-				frame.getModelObject()
-					.setSettingsModelBean(frame.getMouseMoveSettingsPanel().getModelObject());
+				settingsPanel.applySettings(mouseMovementManager, application.getSettingsStore());
 			}
 		}));
 
 		// About menu item
 		aboutItem.addActionListener(e -> SwingUtilities.invokeLater(() -> {
-			JOptionPane.showMessageDialog(frame, "Silent Mouse\nVersion: "
+			JOptionPane.showMessageDialog(null, "Silent Mouse\nVersion: "
 				+ Messages.getString("InfoJPanel.version.value")
 				+ "\nCopyright: Asterios Raptis\nThis Software is licensed under the MIT Licence",
 				"About", JOptionPane.INFORMATION_MESSAGE);
@@ -198,8 +199,7 @@ public class JavaSystemTrayHandler implements SystemTrayHandler
 		});
 
 		// Stop menu item
-		stopItem.setEnabled(frame.getMouseMovementManager().getCurrentExecutionThread() != null
-			&& !frame.getMouseMovementManager().getCurrentExecutionThread().isInterrupted());
+		stopItem.setEnabled(application.getMouseMovementManager().isRunning());
 		stopItem.addActionListener(e -> {
 			stopMoving();
 			trayIcon.setToolTip("Stopped Moving");
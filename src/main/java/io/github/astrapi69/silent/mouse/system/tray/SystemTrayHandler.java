@@ -24,7 +24,7 @@
  */
 package io.github.astrapi69.silent.mouse.system.tray;
 
-import io.github.astrapi69.silent.mouse.frame.SystemTrayApplicationFrame;
+import io.github.astrapi69.silent.mouse.frame.SystemTrayApplication;
 import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
 
 /**
@@ -35,14 +35,14 @@ public interface SystemTrayHandler
 {
 
 	/**
-	 * Initializes the system tray with the specified frame and settings model bean
+	 * Initializes the system tray with the specified application and settings model bean
 	 *
-	 * @param frame
-	 *            the application frame that manages the system tray behavior
+	 * @param application
+	 *            the application that manages the system tray behavior
 	 * @param settingsModelBean
 	 *            the settings model bean containing configuration settings
 	 */
-	void initialize(SystemTrayApplicationFrame frame, SettingsModelBean settingsModelBean);
+	void initialize(SystemTrayApplication application, SettingsModelBean settingsModelBean);
 
 	/**
 	 * Shuts down the system tray and releases resources
@@ -0,0 +1,723 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.track;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The class {@link ActivityHistory} is an in-process time series of the user activity with three
+ * tiers of bounded size: the latest raw events, aggregates per minute and aggregates per hour.
+ * Every event is added to the raw tier and updates its minute and its hour bucket directly, so the
+ * rollups never need a background job. All raw events are kept by the <code>ActivityJournal</code>
+ * only if it is enabled.<br>
+ * <br>
+ * The time between two samples counts as active if the later sample shows user activity,
+ * otherwise as idle, and is split at the bucket boundaries. A gap longer than the maximum gap, for
+ * instance while the manager was stopped or the system was suspended, is not counted at all.<br>
+ * <br>
+ * A range query sums the whole hours of the range from the hour tier, the partial hours at its
+ * edges from the minute tier and the partial minutes at its edges from the raw tier, so it costs
+ * O(number of buckets + raw capacity). A partial minute that the raw tier no longer holds is
+ * counted as whole minute. The buckets are kept in rings that are indexed by the bucket number, a
+ * bucket of the ring that belongs to an older period is reset when it is reused.<br>
+ * <br>
+ * Older events, for instance of a journal, are loaded with {@link #load(Consumer)} in the
+ * background into a separate history that is merged into this one when it is complete. The
+ * queries wait for a running load, so they never see a partially loaded history
+ */
+public class ActivityHistory implements MouseActivityListener
+{
+
+	/** The default count of raw events that are kept */
+	public static final int DEFAULT_RAW_CAPACITY = 1024;
+
+	/** The default count of minute buckets that are kept, two days */
+	public static final int DEFAULT_MINUTE_CAPACITY = 2 * 24 * 60;
+
+	/** The default count of hour buckets that are kept, ninety days */
+	public static final int DEFAULT_HOUR_CAPACITY = 90 * 24;
+
+	/** The default maximum gap between two samples that is counted, one hour */
+	public static final long DEFAULT_MAX_GAP_IN_MILLIS = 60 * 60 * 1000L;
+
+	/** The index of the active milliseconds of a bucket */
+	static final int ACTIVE_MILLIS = 0;
+
+	/** The index of the idle milliseconds of a bucket */
+	static final int IDLE_MILLIS = 1;
+
+	/** The index of the count of nudges of a bucket */
+	static final int NUDGES = 2;
+
+	/** The index of the count of samples of a bucket */
+	static final int SAMPLES = 3;
+
+	/** The milliseconds of a minute */
+	private static final long MINUTE_IN_MILLIS = 60 * 1000L;
+
+	/** The minutes of an hour */
+	private static final long MINUTES_PER_HOUR = 60;
+
+	/** The name of the virtual threads that load older events */
+	private static final String LOAD_THREAD_NAME = "silent-mouse-history-load";
+
+	/** The tier of the raw events */
+	private final RawTier events;
+
+	/** The tier of the minute buckets */
+	private final Tier minutes;
+
+	/** The tier of the hour buckets */
+	private final Tier hours;
+
+	/** The maximum gap between two samples that is counted */
+	private final long maxGapInMillis;
+
+	/** The timestamp of the previous sample or -1 if there is none */
+	private long previousSampleTimestamp = -1;
+
+	/** The running load of older events or null if none is running */
+	private volatile CompletableFuture<Void> pendingLoad;
+
+	/**
+	 * Instantiates a new {@link ActivityHistory} with the default capacities
+	 */
+	public ActivityHistory()
+	{
+		this(DEFAULT_RAW_CAPACITY, DEFAULT_MINUTE_CAPACITY, DEFAULT_HOUR_CAPACITY,
+			DEFAULT_MAX_GAP_IN_MILLIS);
+	}
+
+	/**
+	 * Instantiates a new {@link ActivityHistory} with the given capacities
+	 *
+	 * @param rawCapacity
+	 *            the count of raw events that are kept
+	 * @param minuteCapacity
+	 *            the count of minute buckets that are kept
+	 * @param hourCapacity
+	 *            the count of hour buckets that are kept
+	 * @param maxGapInMillis
+	 *            the maximum gap between two samples that is counted
+	 */
+	public ActivityHistory(final int rawCapacity, final int minuteCapacity, final int hourCapacity,
+		final long maxGapInMillis)
+	{
+		events = new RawTier(rawCapacity);
+		minutes = new Tier(minuteCapacity);
+		hours = new Tier(hourCapacity);
+		this.maxGapInMillis = maxGapInMillis;
+	}
+
+	/**
+	 * Gets the start of the current day in the default time zone
+	 *
+	 * @return the start of the current day in milliseconds since the epoch
+	 */
+	public static long getStartOfToday()
+	{
+		final ZoneId zoneId = ZoneId.systemDefault();
+		return LocalDate.now(zoneId).atStartOfDay(zoneId).toInstant().toEpochMilli();
+	}
+
+	/**
+	 * Gets the start of the current week, the last monday, in the default time zone
+	 *
+	 * @return the start of the current week in milliseconds since the epoch
+	 */
+	public static long getStartOfWeek()
+	{
+		final ZoneId zoneId = ZoneId.systemDefault();
+		return LocalDate.now(zoneId).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+			.atStartOfDay(zoneId).toInstant().toEpochMilli();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void onSample(final long timestamp, final int x, final int y,
+		final boolean active)
+	{
+		final long minute = Math.floorDiv(timestamp, MINUTE_IN_MILLIS);
+		minutes.add(minute, SAMPLES, 1);
+		hours.add(Math.floorDiv(minute, MINUTES_PER_HOUR), SAMPLES, 1);
+		long periodBegin = -1;
+		if (0 <= previousSampleTimestamp && previousSampleTimestamp < timestamp
+			&& timestamp - previousSampleTimestamp <= maxGapInMillis)
+		{
+			periodBegin = previousSampleTimestamp;
+			addDuration(previousSampleTimestamp, timestamp, active ? ACTIVE_MILLIS : IDLE_MILLIS);
+		}
+		events.add(timestamp, periodBegin, active ? RawTier.ACTIVE_SAMPLE : RawTier.IDLE_SAMPLE);
+		if (previousSampleTimestamp < timestamp)
+		{
+			previousSampleTimestamp = timestamp;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void onNudge(final long timestamp, final int x, final int y)
+	{
+		final long minute = Math.floorDiv(timestamp, MINUTE_IN_MILLIS);
+		minutes.add(minute, NUDGES, 1);
+		hours.add(Math.floorDiv(minute, MINUTES_PER_HOUR), NUDGES, 1);
+		events.add(timestamp, -1, RawTier.NUDGE);
+	}
+
+	/**
+	 * Gets the active time in the given range. A partial minute at the edges of the range that
+	 * the raw tier no longer holds is counted as whole minute
+	 *
+	 * @param from
+	 *            the begin of the range in milliseconds since the epoch, inclusive
+	 * @param to
+	 *            the end of the range in milliseconds since the epoch, exclusive
+	 * @return the active time in milliseconds
+	 */
+	public long getActiveMillis(final long from, final long to)
+	{
+		return query(from, to, ACTIVE_MILLIS);
+	}
+
+	/**
+	 * Gets the idle time in the given range. A partial minute at the edges of the range that
+	 * the raw tier no longer holds is counted as whole minute
+	 *
+	 * @param from
+	 *            the begin of the range in milliseconds since the epoch, inclusive
+	 * @param to
+	 *            the end of the range in milliseconds since the epoch, exclusive
+	 * @return the idle time in milliseconds
+	 */
+	public long getIdleMillis(final long from, final long to)
+	{
+		return query(from, to, IDLE_MILLIS);
+	}
+
+	/**
+	 * Gets the count of nudges in the given range. A partial minute at the edges of the range that
+	 * the raw tier no longer holds is counted as whole minute
+	 *
+	 * @param from
+	 *            the begin of the range in milliseconds since the epoch, inclusive
+	 * @param to
+	 *            the end of the range in milliseconds since the epoch, exclusive
+	 * @return the count of nudges
+	 */
+	public long getNudgeCount(final long from, final long to)
+	{
+		return query(from, to, NUDGES);
+	}
+
+	/**
+	 * Gets the count of samples in the given range. A partial minute at the edges of the range that
+	 * the raw tier no longer holds is counted as whole minute
+	 *
+	 * @param from
+	 *            the begin of the range in milliseconds since the epoch, inclusive
+	 * @param to
+	 *            the end of the range in milliseconds since the epoch, exclusive
+	 * @return the count of samples
+	 */
+	public long getSampleCount(final long from, final long to)
+	{
+		return query(from, to, SAMPLES);
+	}
+
+	/**
+	 * Loads older events in the background. The given loader passes the events in the order they
+	 * happened to the listener it gets, a new history that is merged into this one when the loader
+	 * returned. The queries wait until the load is finished
+	 *
+	 * @param loader
+	 *            the loader of the older events
+	 * @return the future of the load, it is completed when the events are merged
+	 */
+	public synchronized CompletableFuture<Void> load(final Consumer<MouseActivityListener> loader)
+	{
+		final CompletableFuture<Void> previousLoad = pendingLoad;
+		final CompletableFuture<Void> load = new CompletableFuture<>();
+		pendingLoad = load;
+		Thread.ofVirtual().name(LOAD_THREAD_NAME).start(() -> {
+			try
+			{
+				if (previousLoad != null)
+				{
+					previousLoad.join();
+				}
+				final ActivityHistory loaded = new ActivityHistory(events.timestamps.length,
+					minutes.bucketNumbers.length, hours.bucketNumbers.length, maxGapInMillis);
+				loader.accept(loaded);
+				merge(loaded);
+			}
+			finally
+			{
+				synchronized (this)
+				{
+					if (pendingLoad == load)
+					{
+						pendingLoad = null;
+					}
+				}
+				load.complete(null);
+			}
+		});
+		return load;
+	}
+
+	/**
+	 * Merges the raw events and the buckets of the given loaded history into this one
+	 *
+	 * @param loaded
+	 *            the loaded history
+	 */
+	private synchronized void merge(final ActivityHistory loaded)
+	{
+		synchronized (loaded)
+		{
+			events.addAll(loaded.events);
+			minutes.addAll(loaded.minutes);
+			hours.addAll(loaded.hours);
+			previousSampleTimestamp = Math.max(previousSampleTimestamp,
+				loaded.previousSampleTimestamp);
+		}
+	}
+
+	/**
+	 * Waits for a running load and sums the given field over the given range
+	 *
+	 * @param from
+	 *            the begin of the range in milliseconds since the epoch, inclusive
+	 * @param to
+	 *            the end of the range in milliseconds since the epoch, exclusive
+	 * @param field
+	 *            the index of the field
+	 * @return the sum
+	 */
+	private long query(final long from, final long to, final int field)
+	{
+		final CompletableFuture<Void> load = pendingLoad;
+		if (load != null)
+		{
+			load.join();
+		}
+		synchronized (this)
+		{
+			return sum(from, to, field);
+		}
+	}
+
+	/**
+	 * Adds the given period to the given field, split at the minute boundaries
+	 *
+	 * @param begin
+	 *            the begin of the period in milliseconds since the epoch
+	 * @param end
+	 *            the end of the period in milliseconds since the epoch
+	 * @param field
+	 *            the index of the field
+	 */
+	private void addDuration(final long begin, final long end, final int field)
+	{
+		long current = begin;
+		while (current < end)
+		{
+			final long minute = Math.floorDiv(current, MINUTE_IN_MILLIS);
+			final long next = Math.min(end, (minute + 1) * MINUTE_IN_MILLIS);
+			minutes.add(minute, field, next - current);
+			hours.add(Math.floorDiv(minute, MINUTES_PER_HOUR), field, next - current);
+			current = next;
+		}
+	}
+
+	/**
+	 * Sums the given field over the given range. The partial minutes at the edges are read from
+	 * the raw tier, a partial minute that the raw tier no longer holds is read as whole minute
+	 * from the minute buckets
+	 *
+	 * @param from
+	 *            the begin of the range in milliseconds since the epoch, inclusive
+	 * @param to
+	 *            the end of the range in milliseconds since the epoch, exclusive
+	 * @param field
+	 *            the index of the field
+	 * @return the sum
+	 */
+	private long sum(final long from, final long to, final int field)
+	{
+		if (to <= from)
+		{
+			return 0;
+		}
+		long fromMinute = Math.floorDiv(from, MINUTE_IN_MILLIS);
+		long toMinute = Math.floorDiv(to - 1, MINUTE_IN_MILLIS) + 1;
+		long sum = 0;
+		if (fromMinute * MINUTE_IN_MILLIS < from && events.holds(from))
+		{
+			fromMinute++;
+			sum += events.sum(from, Math.min(to, fromMinute * MINUTE_IN_MILLIS), field);
+		}
+		if (fromMinute < toMinute && to < toMinute * MINUTE_IN_MILLIS
+			&& events.holds((toMinute - 1) * MINUTE_IN_MILLIS))
+		{
+			toMinute--;
+			sum += events.sum(toMinute * MINUTE_IN_MILLIS, to, field);
+		}
+		if (fromMinute < toMinute)
+		{
+			sum += sumMinutes(fromMinute, toMinute, field);
+		}
+		return sum;
+	}
+
+	/**
+	 * Sums the given field over the given range of minute buckets. Whole hours are read from the
+	 * hour tier, the partial hours at the edges from the minute tier. A partial hour that the
+	 * minute tier no longer holds is read as whole hour from the hour tier
+	 *
+	 * @param fromMinute
+	 *            the first minute bucket, inclusive
+	 * @param toMinute
+	 *            the last minute bucket, exclusive
+	 * @param field
+	 *            the index of the field
+	 * @return the sum
+	 */
+	private long sumMinutes(final long fromMinute, final long toMinute, final int field)
+	{
+		long firstHour = Math.floorDiv(fromMinute + MINUTES_PER_HOUR - 1, MINUTES_PER_HOUR);
+		long lastHour = Math.floorDiv(toMinute, MINUTES_PER_HOUR);
+		if (!minutes.holds(fromMinute))
+		{
+			firstHour = Math.floorDiv(fromMinute, MINUTES_PER_HOUR);
+		}
+		if (!minutes.holds(toMinute - 1))
+		{
+			lastHour = Math.floorDiv(toMinute + MINUTES_PER_HOUR - 1, MINUTES_PER_HOUR);
+		}
+		if (lastHour <= firstHour)
+		{
+			return minutes.sum(fromMinute, toMinute, field);
+		}
+		return minutes.sum(fromMinute, firstHour * MINUTES_PER_HOUR, field)
+			+ hours.sum(firstHour, lastHour, field)
+			+ minutes.sum(lastHour * MINUTES_PER_HOUR, toMinute, field);
+	}
+
+	/**
+	 * The class {@link Tier} is a ring of buckets of one size that is indexed by the bucket
+	 * number
+	 */
+	private static final class Tier
+	{
+
+		/** The count of fields of a bucket */
+		private static final int FIELDS = 4;
+
+		/** The numbers of the buckets in the slots, -1 for an unused slot */
+		private final long[] bucketNumbers;
+
+		/** The values of the buckets, indexed by field and slot */
+		private final long[][] values;
+
+		/** The number of the newest bucket */
+		private long newestBucketNumber = Long.MIN_VALUE;
+
+		/**
+		 * Instantiates a new {@link Tier} with the given capacity
+		 *
+		 * @param capacity
+		 *            the count of buckets that are kept
+		 */
+		private Tier(final int capacity)
+		{
+			bucketNumbers = new long[capacity];
+			Arrays.fill(bucketNumbers, -1);
+			values = new long[FIELDS][capacity];
+		}
+
+		/**
+		 * Adds the given value to the given field of the given bucket. A value for a bucket that
+		 * is older than the kept ones is dropped
+		 *
+		 * @param bucketNumber
+		 *            the number of the bucket
+		 * @param field
+		 *            the index of the field
+		 * @param value
+		 *            the value to add
+		 */
+		private void add(final long bucketNumber, final int field, final long value)
+		{
+			if (!holds(bucketNumber) && bucketNumber < newestBucketNumber)
+			{
+				return;
+			}
+			final int slot = Math.floorMod(bucketNumber, bucketNumbers.length);
+			if (bucketNumbers[slot] != bucketNumber)
+			{
+				bucketNumbers[slot] = bucketNumber;
+				for (int i = 0; i < FIELDS; i++)
+				{
+					values[i][slot] = 0;
+				}
+			}
+			values[field][slot] += value;
+			newestBucketNumber = Math.max(newestBucketNumber, bucketNumber);
+		}
+
+		/**
+		 * Adds all buckets of the given tier to this tier
+		 *
+		 * @param tier
+		 *            the tier to add
+		 */
+		private void addAll(final Tier tier)
+		{
+			for (int slot = 0; slot < tier.bucketNumbers.length; slot++)
+			{
+				final long bucketNumber = tier.bucketNumbers[slot];
+				if (bucketNumber == -1)
+				{
+					continue;
+				}
+				for (int field = 0; field < FIELDS; field++)
+				{
+					add(bucketNumber, field, tier.values[field][slot]);
+				}
+			}
+		}
+
+		/**
+		 * Checks if the given bucket is within the kept range of this tier
+		 *
+		 * @param bucketNumber
+		 *            the number of the bucket
+		 * @return true if the bucket is within the kept range otherwise false
+		 */
+		private boolean holds(final long bucketNumber)
+		{
+			return newestBucketNumber == Long.MIN_VALUE
+				|| newestBucketNumber - bucketNumbers.length < bucketNumber;
+		}
+
+		/**
+		 * Sums the given field over the given range of buckets
+		 *
+		 * @param fromBucketNumber
+		 *            the first bucket, inclusive
+		 * @param toBucketNumber
+		 *            the last bucket, exclusive
+		 * @param field
+		 *            the index of the field
+		 * @return the sum
+		 */
+		private long sum(final long fromBucketNumber, final long toBucketNumber, final int field)
+		{
+			long sum = 0;
+			final long last = Math.min(toBucketNumber, newestBucketNumber + 1);
+			final long first = Math.max(fromBucketNumber, last - bucketNumbers.length);
+			for (long bucketNumber = first; bucketNumber < last; bucketNumber++)
+			{
+				final int slot = Math.floorMod(bucketNumber, bucketNumbers.length);
+				if (bucketNumbers[slot] == bucketNumber)
+				{
+					sum += values[field][slot];
+				}
+			}
+			return sum;
+		}
+	}
+
+	/**
+	 * The class {@link RawTier} is a ring of the latest raw events in the order they were added.
+	 * It holds all events that are newer than the newest event it has dropped
+	 */
+	private static final class RawTier
+	{
+
+		/** The kind of a sample with user activity */
+		private static final byte ACTIVE_SAMPLE = 0;
+
+		/** The kind of a sample without user activity */
+		private static final byte IDLE_SAMPLE = 1;
+
+		/** The kind of a nudge */
+		private static final byte NUDGE = 2;
+
+		/** The timestamps of the events */
+		private final long[] timestamps;
+
+		/** The begin of the counted period of the samples, -1 if no period is counted */
+		private final long[] periodBegins;
+
+		/** The kinds of the events */
+		private final byte[] kinds;
+
+		/** The slot of the next event */
+		private int next;
+
+		/** The count of events in the ring */
+		private int size;
+
+		/** The timestamp of the newest dropped event */
+		private long droppedTimestamp = Long.MIN_VALUE;
+
+		/**
+		 * Instantiates a new {@link RawTier} with the given capacity
+		 *
+		 * @param capacity
+		 *            the count of events that are kept
+		 */
+		private RawTier(final int capacity)
+		{
+			timestamps = new long[capacity];
+			periodBegins = new long[capacity];
+			kinds = new byte[capacity];
+		}
+
+		/**
+		 * Adds the given event. If the ring is full the oldest added event is dropped, an event
+		 * that is not newer than a dropped one is not added
+		 *
+		 * @param timestamp
+		 *            the timestamp of the event
+		 * @param periodBegin
+		 *            the begin of the counted period of a sample or -1
+		 * @param kind
+		 *            the kind of the event
+		 */
+		private void add(final long timestamp, final long periodBegin, final byte kind)
+		{
+			if (timestamp <= droppedTimestamp)
+			{
+				return;
+			}
+			if (size == timestamps.length)
+			{
+				droppedTimestamp = Math.max(droppedTimestamp, timestamps[next]);
+			}
+			else
+			{
+				size++;
+			}
+			timestamps[next] = timestamp;
+			periodBegins[next] = periodBegin;
+			kinds[next] = kind;
+			next = (next + 1) % timestamps.length;
+		}
+
+		/**
+		 * Adds all events of the given tier to this tier. The events of both are added again in
+		 * the order of their timestamps, so the newest events are kept
+		 *
+		 * @param tier
+		 *            the tier to add
+		 */
+		private void addAll(final RawTier tier)
+		{
+			final int count = size + tier.size;
+			final long[] allTimestamps = new long[count];
+			final long[] allPeriodBegins = new long[count];
+			final byte[] allKinds = new byte[count];
+			System.arraycopy(timestamps, 0, allTimestamps, 0, size);
+			System.arraycopy(periodBegins, 0, allPeriodBegins, 0, size);
+			System.arraycopy(kinds, 0, allKinds, 0, size);
+			System.arraycopy(tier.timestamps, 0, allTimestamps, size, tier.size);
+			System.arraycopy(tier.periodBegins, 0, allPeriodBegins, size, tier.size);
+			System.arraycopy(tier.kinds, 0, allKinds, size, tier.size);
+			final Integer[] order = new Integer[count];
+			Arrays.setAll(order, i -> i);
+			Arrays.sort(order, Comparator.comparingLong(i -> allTimestamps[i]));
+			droppedTimestamp = Math.max(droppedTimestamp, tier.droppedTimestamp);
+			next = 0;
+			size = 0;
+			for (final int i : order)
+			{
+				add(allTimestamps[i], allPeriodBegins[i], allKinds[i]);
+			}
+		}
+
+		/**
+		 * Checks if this tier holds all events from the given timestamp on
+		 *
+		 * @param timestamp
+		 *            the timestamp in milliseconds since the epoch
+		 * @return true if this tier holds all events from the given timestamp on otherwise false
+		 */
+		private boolean holds(final long timestamp)
+		{
+			return droppedTimestamp < timestamp;
+		}
+
+		/**
+		 * Sums the given field over the events in the given range. The counted periods of the
+		 * samples are clipped to the range
+		 *
+		 * @param from
+		 *            the begin of the range in milliseconds since the epoch, inclusive
+		 * @param to
+		 *            the end of the range in milliseconds since the epoch, exclusive
+		 * @param field
+		 *            the index of the field
+		 * @return the sum
+		 */
+		private long sum(final long from, final long to, final int field)
+		{
+			long sum = 0;
+			for (int slot = 0; slot < size; slot++)
+			{
+				final long timestamp = timestamps[slot];
+				final byte kind = kinds[slot];
+				if (field == ACTIVE_MILLIS || field == IDLE_MILLIS)
+				{
+					final byte sampleKind = field == ACTIVE_MILLIS ? ACTIVE_SAMPLE : IDLE_SAMPLE;
+					if (kind == sampleKind && 0 <= periodBegins[slot])
+					{
+						sum += Math.max(0,
+							Math.min(timestamp, to) - Math.max(periodBegins[slot], from));
+					}
+				}
+				else if (from <= timestamp && timestamp < to
+					&& (kind == NUDGE) == (field == NUDGES))
+				{
+					sum++;
+				}
+			}
+			return sum;
+		}
+	}
+}
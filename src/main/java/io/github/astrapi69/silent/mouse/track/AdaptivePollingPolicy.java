@@ -0,0 +1,124 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.track;
+
+/**
+ * The class {@link AdaptivePollingPolicy} calculates the interval until the next sample of the
+ * mouse position. While the user is idle the interval grows geometrically from the minimum up to
+ * the maximum interval, as soon as activity is seen it falls back to the minimum interval.<br>
+ * <br>
+ * The bounds are passed on every call, so changed settings are applied with the next sample. The
+ * unit of the intervals is the unit of the given bounds. Instances are not thread safe and are
+ * meant to be used by the single tracking task
+ */
+public class AdaptivePollingPolicy
+{
+
+	/** The default factor the interval grows with on every idle sample */
+	public static final int DEFAULT_BACKOFF_FACTOR = 2;
+
+	/** The factor the interval grows with on every idle sample */
+	private final int backoffFactor;
+
+	/** The current interval, zero if the policy was reset */
+	private long currentInterval;
+
+	/**
+	 * Instantiates a new {@link AdaptivePollingPolicy} with the default backoff factor
+	 */
+	public AdaptivePollingPolicy()
+	{
+		this(DEFAULT_BACKOFF_FACTOR);
+	}
+
+	/**
+	 * Instantiates a new {@link AdaptivePollingPolicy} with the given backoff factor
+	 *
+	 * @param backoffFactor
+	 *            the factor the interval grows with on every idle sample
+	 */
+	public AdaptivePollingPolicy(final int backoffFactor)
+	{
+		if (backoffFactor < 1)
+		{
+			throw new IllegalArgumentException(
+				"Backoff factor must be at least 1 but was " + backoffFactor);
+		}
+		this.backoffFactor = backoffFactor;
+	}
+
+	/**
+	 * Calculates the interval until the next sample
+	 *
+	 * @param active
+	 *            true if the last sample showed user activity
+	 * @param minimumInterval
+	 *            the fine-grained interval used while the user is active
+	 * @param maximumInterval
+	 *            the upper bound of the interval while the user is idle, a value below the minimum
+	 *            interval disables the backoff
+	 * @return the interval until the next sample
+	 */
+	public long nextInterval(final boolean active, final long minimumInterval,
+		final long maximumInterval)
+	{
+		final long upperBound = Math.max(minimumInterval, maximumInterval);
+		if (active || currentInterval == 0)
+		{
+			currentInterval = minimumInterval;
+		}
+		else if (currentInterval < upperBound / backoffFactor)
+		{
+			currentInterval = currentInterval * backoffFactor;
+		}
+		else
+		{
+			currentInterval = upperBound;
+		}
+		currentInterval = Math.min(upperBound, Math.max(minimumInterval, currentInterval));
+		return currentInterval;
+	}
+
+	/**
+	 * Checks if the current interval is greater than the given minimum interval
+	 *
+	 * @param minimumInterval
+	 *            the fine-grained interval used while the user is active
+	 * @return true if the policy backed off otherwise false
+	 */
+	public boolean isBackedOff(final long minimumInterval)
+	{
+		return minimumInterval < currentInterval;
+	}
+
+	/**
+	 * Resets the policy, the next call of {@link #nextInterval(boolean, long, long)} returns the
+	 * minimum interval
+	 */
+	public void reset()
+	{
+		currentInterval = 0;
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.track;
+
+/**
+ * The interface {@link MouseActivityListener} is notified about the samples and nudges of a
+ * mouse movement manager. The methods are called on the scheduler thread of the manager while it
+ * holds its lifecycle lock, so implementations must return quickly and must not block
+ */
+public interface MouseActivityListener
+{
+
+	/**
+	 * Called after the mouse position was sampled
+	 *
+	 * @param timestamp
+	 *            the time of the sample in milliseconds since the epoch
+	 * @param x
+	 *            the x coordinate of the sampled position
+	 * @param y
+	 *            the y coordinate of the sampled position
+	 * @param active
+	 *            true if the sample shows user activity since the previous sample
+	 */
+	default void onSample(long timestamp, int x, int y, boolean active)
+	{
+	}
+
+	/**
+	 * Called after the mouse was nudged
+	 *
+	 * @param timestamp
+	 *            the time of the nudge in milliseconds since the epoch
+	 * @param x
+	 *            the x coordinate the mouse was moved to
+	 * @param y
+	 *            the y coordinate the mouse was moved to
+	 */
+	default void onNudge(long timestamp, int x, int y)
+	{
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.track;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The class {@link MouseTrack} is a reusable holder for a single entry of a
+ * {@link MouseTrackRingBuffer}. Readers pass their own instance to the buffer so that reading the
+ * track history does not allocate any objects
+ */
+@Getter
+@ToString
+public class MouseTrack
+{
+	/** The timestamp of the track entry in milliseconds since the epoch */
+	long timestamp;
+
+	/** The x coordinate of the tracked mouse position */
+	int x;
+
+	/** The y coordinate of the tracked mouse position */
+	int y;
+
+	/**
+	 * Sets all values of this track entry
+	 *
+	 * @param timestamp
+	 *            the timestamp in milliseconds since the epoch
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 */
+	void set(final long timestamp, final int x, final int y)
+	{
+		this.timestamp = timestamp;
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * Checks if this track entry has the given coordinates
+	 *
+	 * @param x
+	 *            the x coordinate to compare
+	 * @param y
+	 *            the y coordinate to compare
+	 * @return true if the coordinates are equal otherwise false
+	 */
+	public boolean isAt(final int x, final int y)
+	{
+		return this.x == x && this.y == y;
+	}
+}
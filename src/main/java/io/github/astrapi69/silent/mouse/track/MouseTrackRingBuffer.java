@@ -0,0 +1,258 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.track;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The class {@link MouseTrackRingBuffer} is a fixed-capacity ring buffer for the mouse track
+ * history. Timestamps and coordinates are stored in primitive arrays, so the memory footprint is
+ * allocated once in the constructor and stays flat no matter how long the process runs.<br>
+ * <br>
+ * The buffer supports exactly one writer thread and any number of reader threads. Readers never
+ * block: every slot is guarded by a sequence stamp, and a read that races with the writer is
+ * detected and retried or skipped. The mouse movement manager writes it only from its tracking
+ * task, so callers of its public getter can read it without taking any lock
+ */
+public class MouseTrackRingBuffer
+{
+
+	/** The default capacity of the buffer */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/** The capacity of the buffer, always a power of two */
+	private final int capacity;
+
+	/** The mask for calculating the slot index from a sequence */
+	private final int mask;
+
+	/** The timestamps of the entries in milliseconds since the epoch */
+	private final long[] timestamps;
+
+	/** The x coordinates of the entries */
+	private final int[] xCoordinates;
+
+	/** The y coordinates of the entries */
+	private final int[] yCoordinates;
+
+	/**
+	 * The stamps of the slots. An odd stamp marks a slot that is currently written, an even stamp
+	 * is the value <code>2 * (sequence + 1)</code> of the entry the slot holds
+	 */
+	private final AtomicLongArray stamps;
+
+	/** The count of all entries that have ever been written */
+	private volatile long writeSequence;
+
+	/**
+	 * Instantiates a new {@link MouseTrackRingBuffer} with the default capacity
+	 */
+	public MouseTrackRingBuffer()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new {@link MouseTrackRingBuffer} with the given capacity. The capacity will be
+	 * rounded up to the next power of two
+	 *
+	 * @param capacity
+	 *            the minimum capacity of the buffer
+	 */
+	public MouseTrackRingBuffer(final int capacity)
+	{
+		if (capacity < 1 || capacity > 1 << 30)
+		{
+			throw new IllegalArgumentException(
+				"Capacity must be between 1 and " + (1 << 30) + " but was " + capacity);
+		}
+		this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.timestamps = new long[this.capacity];
+		this.xCoordinates = new int[this.capacity];
+		this.yCoordinates = new int[this.capacity];
+		this.stamps = new AtomicLongArray(this.capacity);
+	}
+
+	/**
+	 * Appends a new entry to the buffer and overwrites the oldest entry if the buffer is full. Must
+	 * only be called from the single writer thread
+	 *
+	 * @param timestamp
+	 *            the timestamp in milliseconds since the epoch
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 */
+	public void add(final long timestamp, final int x, final int y)
+	{
+		final long sequence = writeSequence;
+		final int slot = (int)(sequence & mask);
+		stamps.setOpaque(slot, 2 * sequence + 1);
+		VarHandle.storeStoreFence();
+		timestamps[slot] = timestamp;
+		xCoordinates[slot] = x;
+		yCoordinates[slot] = y;
+		stamps.setRelease(slot, 2 * sequence + 2);
+		writeSequence = sequence + 1;
+	}
+
+	/**
+	 * Reads the most recent entry into the given target
+	 *
+	 * @param target
+	 *            the target that receives the values of the most recent entry
+	 * @return true if an entry was read, false if the buffer is empty
+	 */
+	public boolean lastEntry(final MouseTrack target)
+	{
+		long sequence;
+		while ((sequence = writeSequence - 1) >= 0)
+		{
+			if (read(sequence, target))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Passes all entries with a timestamp in the given range to the given consumer, from the oldest
+	 * to the newest entry. Entries that are overwritten by the writer while iterating are skipped
+	 *
+	 * @param fromInclusive
+	 *            the lower bound of the timestamp range in milliseconds since the epoch
+	 * @param toExclusive
+	 *            the upper bound of the timestamp range in milliseconds since the epoch
+	 * @param target
+	 *            a reusable holder for the entries
+	 * @param consumer
+	 *            the consumer that receives the entries
+	 * @return the count of entries passed to the consumer
+	 */
+	public int forEachInRange(final long fromInclusive, final long toExclusive,
+		final MouseTrack target, final MouseTrackConsumer consumer)
+	{
+		final long end = writeSequence;
+		int count = 0;
+		for (long sequence = Math.max(0, end - capacity); sequence < end; sequence++)
+		{
+			if (!read(sequence, target) || target.timestamp < fromInclusive)
+			{
+				continue;
+			}
+			if (toExclusive <= target.timestamp)
+			{
+				break;
+			}
+			consumer.accept(target.timestamp, target.x, target.y);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Reads the entry with the given sequence into the given target
+	 *
+	 * @param sequence
+	 *            the sequence of the entry
+	 * @param target
+	 *            the target that receives the values
+	 * @return true if the entry could be read consistently, false if it was overwritten or is
+	 *         currently written
+	 */
+	private boolean read(final long sequence, final MouseTrack target)
+	{
+		final int slot = (int)(sequence & mask);
+		final long expectedStamp = 2 * sequence + 2;
+		if (stamps.getAcquire(slot) != expectedStamp)
+		{
+			return false;
+		}
+		final long timestamp = timestamps[slot];
+		final int x = xCoordinates[slot];
+		final int y = yCoordinates[slot];
+		VarHandle.loadLoadFence();
+		if (stamps.getOpaque(slot) != expectedStamp)
+		{
+			return false;
+		}
+		target.set(timestamp, x, y);
+		return true;
+	}
+
+	/**
+	 * Gets the capacity of this buffer
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity()
+	{
+		return capacity;
+	}
+
+	/**
+	 * Gets the count of entries currently held by this buffer
+	 *
+	 * @return the count of entries
+	 */
+	public int size()
+	{
+		return (int)Math.min(writeSequence, capacity);
+	}
+
+	/**
+	 * Checks if this buffer holds no entries
+	 *
+	 * @return true if this buffer is empty otherwise false
+	 */
+	public boolean isEmpty()
+	{
+		return writeSequence == 0;
+	}
+
+	/**
+	 * The functional interface {@link MouseTrackConsumer} receives the primitive values of a track
+	 * entry without boxing
+	 */
+	@FunctionalInterface
+	public interface MouseTrackConsumer
+	{
+		/**
+		 * Receives a track entry
+		 *
+		 * @param timestamp
+		 *            the timestamp in milliseconds since the epoch
+		 * @param x
+		 *            the x coordinate
+		 * @param y
+		 *            the y coordinate
+		 */
+		void accept(long timestamp, int x, int y);
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.track;
+
+/**
+ * The class {@link SyntheticMoveJournal} records the moves a manager made itself since the last
+ * tracked position, the base. The position the pointer is expected at if the user was idle is the
+ * base with all recorded moves applied in order, so a position that only differs from the base by
+ * synthetic moves is not mistaken for user activity.<br>
+ * <br>
+ * Positions are packed into a primitive <code>long</code> with
+ * {@link io.github.astrapi69.silent.mouse.pointer.PointerPosition}, the journal is allocated once
+ * and recording a move does not allocate. If more moves are recorded than the capacity, the
+ * oldest move is folded into the base. The journal is not thread safe, the manager uses it only
+ * while holding its lifecycle lock
+ */
+public class SyntheticMoveJournal
+{
+
+	/** The default count of moves that are kept */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	/** The positions the moves started at, in the order of the moves */
+	private final long[] fromPositions;
+
+	/** The positions the moves ended at, in the order of the moves */
+	private final long[] toPositions;
+
+	/** The index of the oldest move */
+	private int head;
+
+	/** The count of recorded moves */
+	private int size;
+
+	/** The tracked position the moves are applied to */
+	private long basePosition;
+
+	/** Flag that indicates if a base is set */
+	private boolean based;
+
+	/**
+	 * Instantiates a new {@link SyntheticMoveJournal} with the default capacity
+	 */
+	public SyntheticMoveJournal()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new {@link SyntheticMoveJournal} with the given capacity
+	 *
+	 * @param capacity
+	 *            the count of moves that are kept
+	 */
+	public SyntheticMoveJournal(final int capacity)
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("Capacity must be at least 1 but was " + capacity);
+		}
+		fromPositions = new long[capacity];
+		toPositions = new long[capacity];
+	}
+
+	/**
+	 * Sets the given tracked position as new base and discards the recorded moves
+	 *
+	 * @param position
+	 *            the tracked position
+	 */
+	public void rebase(final long position)
+	{
+		basePosition = position;
+		based = true;
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Discards the base and the recorded moves, for instance on a start of the manager
+	 */
+	public void clear()
+	{
+		based = false;
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Records a synthetic move
+	 *
+	 * @param fromPosition
+	 *            the position the move started at
+	 * @param toPosition
+	 *            the position the move ended at
+	 */
+	public void record(final long fromPosition, final long toPosition)
+	{
+		final int capacity = fromPositions.length;
+		if (size == capacity)
+		{
+			if (based && fromPositions[head] == basePosition)
+			{
+				basePosition = toPositions[head];
+			}
+			head = (head + 1) % capacity;
+			size--;
+		}
+		final int index = (head + size) % capacity;
+		fromPositions[index] = fromPosition;
+		toPositions[index] = toPosition;
+		size++;
+	}
+
+	/**
+	 * Checks if a base is set
+	 *
+	 * @return true if a base is set otherwise false
+	 */
+	public boolean isBased()
+	{
+		return based;
+	}
+
+	/**
+	 * Gets the count of moves recorded since the base was set
+	 *
+	 * @return the count of recorded moves
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Checks if the given position is the one the pointer is expected at if only the recorded
+	 * synthetic moves happened since the base was tracked
+	 *
+	 * @param position
+	 *            the current position
+	 * @return true if a base is set and the position is the expected one otherwise false
+	 */
+	public boolean isExpected(final long position)
+	{
+		if (!based)
+		{
+			return false;
+		}
+		long expectedPosition = basePosition;
+		for (int i = 0; i < size; i++)
+		{
+			final int index = (head + i) % fromPositions.length;
+			if (fromPositions[index] == expectedPosition)
+			{
+				expectedPosition = toPositions[index];
+			}
+		}
+		return position == expectedPosition;
+	}
+}
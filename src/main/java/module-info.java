@@ -24,6 +24,8 @@ module io.github.astrapisixtynine.silent.mouse
 	requires java.logging;
 	requires java.desktop;
 	requires java.prefs;
+	requires java.management;
+	requires jdk.httpserver;
 	requires com.miglayout.swing;
 	requires component.model.main;
 	requires dorkbox.systemtray;
@@ -41,4 +43,6 @@ module io.github.astrapisixtynine.silent.mouse
 	requires model.data;
 	requires io.github.astrapisixtynine.easy.logger;
 	requires io.github.astrapisixtynine.net.extensions;
+
+	exports io.github.astrapi69.silent.mouse.metrics to java.management;
 }
\ No newline at end of file
@@ -24,4 +24,19 @@
 # WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 #
 
-java -jar silent-mouse.jar
+# The class data sharing archive of the loaded classes, created with: ./start.sh train
+ARCHIVE=silent-mouse.jsa
+
+# Additional JVM options and system properties are read from the environment variable JAVA_OPTS,
+# for instance: JAVA_OPTS="-Dsilent.mouse.metrics.port=9464" ./start.sh service
+# The startup summary logged by StartupTrace reports the JVM uptime and the archive in use (cds=),
+# compare the first start after a reboot with and without silent-mouse.jsa to see its effect.
+
+cd "$(dirname "$0")" || exit 1
+if [ "$1" = "train" ]; then
+  exec java $JAVA_OPTS -XX:ArchiveClassesAtExit="$ARCHIVE" -jar silent-mouse.jar "$@"
+fi
+if [ -f "$ARCHIVE" ]; then
+  exec java $JAVA_OPTS -XX:SharedArchiveFile="$ARCHIVE" -jar silent-mouse.jar "$@"
+fi
+exec java $JAVA_OPTS -jar silent-mouse.jar "$@"
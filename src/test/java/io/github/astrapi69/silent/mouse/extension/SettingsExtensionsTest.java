@@ -0,0 +1,126 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.extension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static io.github.astrapi69.silent.mouse.model.RandomSettings.SEED;
+import static io.github.astrapi69.silent.mouse.model.RandomSettings.TRIALS;
+import static io.github.astrapi69.silent.mouse.model.RandomSettings.nextInterval;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.silent.mouse.model.RandomSettings;
+import io.github.astrapi69.silent.mouse.model.SettingsSnapshot;
+
+/**
+ * Test class for the interval parsing of the class {@link SettingsExtensions} with the intervals
+ * of {@link RandomSettings}
+ */
+class SettingsExtensionsTest
+{
+
+	/** The key of the interval setting that is parsed */
+	private static final String KEY = SettingsExtensions.INTERVAL_OF_MOVEMENT;
+
+	/**
+	 * Test method for {@link SettingsExtensions#toInterval(String, String)} with ISO-8601
+	 * durations
+	 */
+	@Test
+	void testToIntervalWithIsoDurations()
+	{
+		final Random random = new Random(SEED);
+		for (int trial = 0; trial < TRIALS; trial++)
+		{
+			final Duration interval = nextInterval(random);
+			assertParsedOrRejected(interval, interval.toString(), ChronoUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Test method for {@link SettingsExtensions#toInterval(String, String, ChronoUnit)} with plain
+	 * numbers in milliseconds
+	 */
+	@Test
+	void testToIntervalWithPlainMillis()
+	{
+		final Random random = new Random(SEED);
+		for (int trial = 0; trial < TRIALS; trial++)
+		{
+			final long millis = random.nextBoolean()
+				? random.nextLong()
+				: random.nextLong(-1, SettingsSnapshot.MAXIMUM_INTERVAL.toMillis() + 2);
+			assertParsedOrRejected(Duration.ofMillis(millis), Long.toString(millis),
+				ChronoUnit.MILLIS);
+		}
+	}
+
+	/**
+	 * Test method for {@link SettingsExtensions#toInterval(String, String)} with malformed values
+	 */
+	@Test
+	void testToIntervalRejectsMalformedValues()
+	{
+		for (final String value : List.of("", " ", "abc", "12x", "1.5s", "--1", "P", "PT",
+			"PTxS", "9223372036854775808", "9223372036854775807d"))
+		{
+			assertThrows(IllegalArgumentException.class,
+				() -> SettingsExtensions.toInterval(KEY, value), value);
+		}
+	}
+
+	/**
+	 * Asserts that the given value is parsed to the given interval if it is within the bounds of
+	 * {@link SettingsSnapshot} and rejected otherwise
+	 *
+	 * @param interval
+	 *            the expected interval
+	 * @param value
+	 *            the value to parse
+	 * @param defaultUnit
+	 *            the unit of a plain number
+	 */
+	private static void assertParsedOrRejected(final Duration interval, final String value,
+		final ChronoUnit defaultUnit)
+	{
+		if (interval.compareTo(SettingsSnapshot.MINIMUM_INTERVAL) < 0
+			|| interval.compareTo(SettingsSnapshot.MAXIMUM_INTERVAL) > 0)
+		{
+			assertThrows(IllegalArgumentException.class,
+				() -> SettingsExtensions.toInterval(KEY, value, defaultUnit), value);
+		}
+		else
+		{
+			assertEquals(interval, SettingsExtensions.toInterval(KEY, value, defaultUnit), value);
+		}
+	}
+
+}
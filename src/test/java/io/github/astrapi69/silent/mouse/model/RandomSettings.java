@@ -0,0 +1,119 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.model;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * The class {@link RandomSettings} generates intervals and settings for the tests with a fixed
+ * seed over the whole range of {@link Duration}, so a failure can be reproduced
+ */
+public final class RandomSettings
+{
+
+	/** The seed of the generated intervals */
+	public static final long SEED = 0x5EED_2024L;
+
+	/** The count of generated intervals or settings of a test */
+	public static final int TRIALS = 10_000;
+
+	private RandomSettings()
+	{
+	}
+
+	/**
+	 * Generates an interval that is negative, zero, around one of the bounds of
+	 * {@link SettingsSnapshot}, within the bounds or anywhere in the range of {@link Duration}
+	 *
+	 * @param random
+	 *            the source of randomness
+	 * @return the generated interval
+	 */
+	public static Duration nextInterval(final Random random)
+	{
+		switch (random.nextInt(6))
+		{
+			case 0 :
+				return Duration.ZERO;
+			case 1 :
+				return SettingsSnapshot.MINIMUM_INTERVAL.plusNanos(random.nextInt(-1, 2));
+			case 2 :
+				return SettingsSnapshot.MAXIMUM_INTERVAL.plusNanos(random.nextInt(-1, 2));
+			case 3 :
+				return Duration.ofMillis(
+					random.nextLong(-1, 2 * SettingsSnapshot.MAXIMUM_INTERVAL.toMillis()));
+			case 4 :
+				return Duration.ofNanos(random.nextLong());
+			default :
+				return Duration.ofSeconds(random.nextLong(), random.nextInt(1_000_000_000));
+		}
+	}
+
+	/**
+	 * Generates an interval like {@link #nextInterval(Random)} that is sometimes missing
+	 *
+	 * @param random
+	 *            the source of randomness
+	 * @return the generated interval or null
+	 */
+	public static Duration nextIntervalOrNull(final Random random)
+	{
+		return random.nextInt(6) == 0 ? null : nextInterval(random);
+	}
+
+	/**
+	 * Generates settings with intervals of {@link #nextIntervalOrNull(Random)}
+	 *
+	 * @param random
+	 *            the source of randomness
+	 * @return the generated settings
+	 */
+	public static SettingsModelBean nextSettingsModelBean(final Random random)
+	{
+		return newSettingsModelBean(nextIntervalOrNull(random), nextIntervalOrNull(random),
+			nextIntervalOrNull(random));
+	}
+
+	/**
+	 * Creates a settings model with the given intervals
+	 *
+	 * @param intervalOfMovement
+	 *            the interval of the mouse movement
+	 * @param intervalOfMouseMovementsCheck
+	 *            the interval of the mouse tracking
+	 * @param maxIntervalOfMouseMovementsCheck
+	 *            the maximum interval of the mouse tracking
+	 * @return the settings model
+	 */
+	public static SettingsModelBean newSettingsModelBean(final Duration intervalOfMovement,
+		final Duration intervalOfMouseMovementsCheck,
+		final Duration maxIntervalOfMouseMovementsCheck)
+	{
+		return SettingsModelBean.builder().intervalOfMovement(intervalOfMovement)
+			.intervalOfMouseMovementsCheck(intervalOfMouseMovementsCheck)
+			.maxIntervalOfMouseMovementsCheck(maxIntervalOfMouseMovementsCheck).build();
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static io.github.astrapi69.silent.mouse.model.RandomSettings.SEED;
+import static io.github.astrapi69.silent.mouse.model.RandomSettings.TRIALS;
+import static io.github.astrapi69.silent.mouse.model.RandomSettings.newSettingsModelBean;
+import static io.github.astrapi69.silent.mouse.model.RandomSettings.nextIntervalOrNull;
+import static io.github.astrapi69.silent.mouse.model.RandomSettings.nextSettingsModelBean;
+
+import java.time.Duration;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the bounded intervals of the class {@link SettingsSnapshot} with the intervals of
+ * {@link RandomSettings}
+ */
+class SettingsSnapshotTest
+{
+
+	/** The lower bound of the intervals in nanoseconds */
+	private static final long MINIMUM_NANOS = SettingsSnapshot.MINIMUM_INTERVAL.toNanos();
+
+	/** The upper bound of the intervals in nanoseconds */
+	private static final long MAXIMUM_NANOS = SettingsSnapshot.MAXIMUM_INTERVAL.toNanos();
+
+	/**
+	 * Test method for the bounded getters of a snapshot created with
+	 * {@link SettingsSnapshot#of(long, SettingsModelBean)}
+	 */
+	@Test
+	void testOfClampsIntervals()
+	{
+		final Random random = new Random(SEED);
+		for (int trial = 0; trial < TRIALS; trial++)
+		{
+			final Duration intervalOfMovement = nextIntervalOrNull(random);
+			final Duration intervalOfMouseMovementsCheck = nextIntervalOrNull(random);
+			final SettingsSnapshot snapshot = SettingsSnapshot.of(trial,
+				newSettingsModelBean(intervalOfMovement, intervalOfMouseMovementsCheck,
+					nextIntervalOrNull(random)));
+			final String settings = snapshot.toString();
+
+			assertInRange(snapshot.getMovementIntervalInNanos(), settings);
+			assertInRange(snapshot.getCheckIntervalInNanos(), settings);
+			assertInRange(snapshot.getMaxCheckIntervalInNanos(), settings);
+			assertInRange(snapshot.getRetryIntervalInNanos(), settings);
+			assertTrue(snapshot.getCheckIntervalInNanos() <= snapshot.getMaxCheckIntervalInNanos(),
+				settings);
+			if (isInRange(intervalOfMovement))
+			{
+				assertEquals(intervalOfMovement.toNanos(), snapshot.getMovementIntervalInNanos(),
+					settings);
+			}
+			if (isInRange(intervalOfMouseMovementsCheck))
+			{
+				assertEquals(intervalOfMouseMovementsCheck.toNanos(),
+					snapshot.getCheckIntervalInNanos(), settings);
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link SettingsSnapshot#getRetryIntervalInNanos()}
+	 */
+	@Test
+	void testGetRetryIntervalInNanosIsNeverZero()
+	{
+		final Random random = new Random(SEED);
+		for (int trial = 0; trial < TRIALS; trial++)
+		{
+			final SettingsSnapshot snapshot = SettingsSnapshot.of(trial,
+				nextSettingsModelBean(random));
+
+			assertTrue(0 < snapshot.getRetryIntervalInNanos(), snapshot.toString());
+			assertTrue(snapshot.getCheckIntervalInNanos() <= snapshot.getRetryIntervalInNanos(),
+				snapshot.toString());
+		}
+	}
+
+	/**
+	 * Checks if the given interval is within the bounds of {@link SettingsSnapshot}
+	 *
+	 * @param interval
+	 *            the interval or null
+	 * @return true if the interval is within the bounds
+	 */
+	private static boolean isInRange(final Duration interval)
+	{
+		return interval != null && interval.compareTo(SettingsSnapshot.MINIMUM_INTERVAL) >= 0
+			&& interval.compareTo(SettingsSnapshot.MAXIMUM_INTERVAL) <= 0;
+	}
+
+	/**
+	 * Asserts that the given interval in nanoseconds is within the bounds of
+	 * {@link SettingsSnapshot}
+	 *
+	 * @param nanos
+	 *            the interval in nanoseconds
+	 * @param settings
+	 *            the settings that are reported on a failure
+	 */
+	private static void assertInRange(final long nanos, final String settings)
+	{
+		assertTrue(MINIMUM_NANOS <= nanos && nanos <= MAXIMUM_NANOS, nanos + " ns of " + settings);
+	}
+}
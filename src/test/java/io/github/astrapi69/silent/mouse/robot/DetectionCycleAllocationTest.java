@@ -0,0 +1,141 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.robot;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.pointer.InMemoryPointerDevice;
+import io.github.astrapi69.silent.mouse.pointer.PointerPosition;
+
+/**
+ * Test class for the steady-state detection cycle of the class {@link MouseMovementManager}. The
+ * allocated bytes of the current thread are measured with
+ * {@link ThreadMXBean#getCurrentThreadAllocatedBytes()} over many cycles after a warm-up, so a
+ * single allocation per cycle fails the test
+ */
+class DetectionCycleAllocationTest
+{
+
+	/** The count of cycles before the measurement */
+	private static final int WARM_UP_CYCLES = 100_000;
+
+	/** The count of measured cycles */
+	private static final int MEASURED_CYCLES = 100_000;
+
+	/** The bean that reports the allocated bytes of the current thread */
+	private ThreadMXBean threadMXBean;
+
+	/** The pointer device of the manager */
+	private InMemoryPointerDevice device;
+
+	/** The manager under test */
+	private MouseMovementManager mouseMovementManager;
+
+	@BeforeEach
+	void setUp()
+	{
+		threadMXBean = (ThreadMXBean)ManagementFactory.getThreadMXBean();
+		assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+		threadMXBean.setThreadAllocatedMemoryEnabled(true);
+		device = new InMemoryPointerDevice();
+		mouseMovementManager = new MouseMovementManager(
+			SettingsModelBean.builder().xAxis(0).yAxis(0).build(), device);
+		mouseMovementManager.trackMousePosition();
+	}
+
+	/**
+	 * Test method for sampling and storing a track entry
+	 */
+	@Test
+	void testTrackMousePositionDoesNotAllocate()
+	{
+		assertAllocationFree(mouseMovementManager::trackMousePosition);
+	}
+
+	/**
+	 * Test method for comparing a position with the last track entry
+	 */
+	@Test
+	void testIsIdleDoesNotAllocate()
+	{
+		final long mousePosition = device.samplePosition();
+		final int x = PointerPosition.x(mousePosition);
+		final int y = PointerPosition.y(mousePosition);
+		assertAllocationFree(() -> mouseMovementManager.isIdle(x, y));
+	}
+
+	/**
+	 * Test method for moving the mouse
+	 */
+	@Test
+	void testMoveMouseDoesNotAllocate()
+	{
+		assertAllocationFree(mouseMovementManager::moveMouse);
+	}
+
+	/**
+	 * Test method for a whole detection cycle
+	 */
+	@Test
+	void testDetectionCycleDoesNotAllocate()
+	{
+		assertAllocationFree(() -> {
+			mouseMovementManager.trackMousePosition();
+			mouseMovementManager.executeDetectionCycle();
+		});
+	}
+
+	/**
+	 * Runs the given step for the warm-up and the measured cycles and asserts that the measured
+	 * cycles allocated less than one byte per cycle
+	 *
+	 * @param step
+	 *            the step of the detection cycle
+	 */
+	private void assertAllocationFree(final Runnable step)
+	{
+		for (int i = 0; i < WARM_UP_CYCLES; i++)
+		{
+			step.run();
+		}
+		final long before = threadMXBean.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < MEASURED_CYCLES; i++)
+		{
+			step.run();
+		}
+		final long allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+		assertTrue(allocatedBytes < MEASURED_CYCLES, "Allocated " + allocatedBytes + " bytes in "
+			+ MEASURED_CYCLES + " cycles");
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.silent.mouse.robot;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static io.github.astrapi69.silent.mouse.model.RandomSettings.SEED;
+import static io.github.astrapi69.silent.mouse.model.RandomSettings.nextSettingsModelBean;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.silent.mouse.engine.ExecutionEngine;
+import io.github.astrapi69.silent.mouse.model.RandomSettings;
+import io.github.astrapi69.silent.mouse.model.SettingsModelBean;
+import io.github.astrapi69.silent.mouse.model.SettingsSnapshot;
+import io.github.astrapi69.silent.mouse.pointer.InMemoryPointerDevice;
+
+/**
+ * Test class for the wake-ups of the scheduler thread caused by the class
+ * {@link MouseMovementManager}. The manager runs on an {@link InMemoryPointerDevice} with the
+ * settings of {@link RandomSettings}. The scheduler runs on the system clock, so an hour can not be
+ * fast-forwarded: each run is measured over a short window and the wake-ups allowed per hour are
+ * scaled to that window
+ */
+class WakeUpRateTest
+{
+
+	/** The count of generated settings that are run */
+	private static final int RUNS = 4;
+
+	/** The time each manager runs */
+	private static final Duration WINDOW = Duration.ofSeconds(1);
+
+	/** The simulated period the bound of the wake-ups is defined for */
+	private static final long HOUR_IN_NANOS = TimeUnit.HOURS.toNanos(1);
+
+	/** The wake-ups of a run besides its intervals, the first and the last one of both tasks */
+	private static final long EXTRA_WAKE_UPS = 4;
+
+	/**
+	 * Test method for the count of wake-ups of {@link ExecutionEngine#getWakeUpCount()} while a
+	 * {@link MouseMovementManager} runs
+	 *
+	 * @throws InterruptedException
+	 *             if the test is interrupted while the manager runs
+	 */
+	@Test
+	void testWakeUpsPerHourAreBounded() throws InterruptedException
+	{
+		final Random random = new Random(SEED);
+		for (int run = 0; run < RUNS; run++)
+		{
+			final SettingsModelBean settingsModelBean = nextSettingsModelBean(random);
+			final MouseMovementManager mouseMovementManager = new MouseMovementManager(
+				settingsModelBean, new InMemoryPointerDevice());
+			final SettingsSnapshot snapshot = mouseMovementManager.getSettings();
+			final ExecutionEngine executionEngine = mouseMovementManager.getExecutionEngine();
+
+			final long wakeUpsBefore = executionEngine.getWakeUpCount();
+			final long begin = System.nanoTime();
+			mouseMovementManager.start();
+			Thread.sleep(WINDOW.toMillis());
+			mouseMovementManager.stop();
+			final long elapsedInNanos = System.nanoTime() - begin;
+			final long wakeUps = executionEngine.getWakeUpCount() - wakeUpsBefore;
+
+			final long maximumWakeUpsPerHour = getMaximumWakeUpsPerHour(snapshot);
+			final long bound = maximumWakeUpsPerHour * elapsedInNanos / HOUR_IN_NANOS
+				+ EXTRA_WAKE_UPS;
+			assertTrue(wakeUps <= bound,
+				wakeUps + " wake-ups in " + elapsedInNanos / 1_000_000 + " ms, at most " + bound
+					+ " allowed by " + maximumWakeUpsPerHour + " per hour of " + snapshot);
+		}
+	}
+
+	/**
+	 * Gets the count of wake-ups per hour the given settings allow at most. The tracking runs at
+	 * least one check interval apart and the movement cycle at least one movement or retry
+	 * interval apart
+	 *
+	 * @param snapshot
+	 *            the settings of the manager
+	 * @return the count of wake-ups per hour
+	 */
+	private static long getMaximumWakeUpsPerHour(final SettingsSnapshot snapshot)
+	{
+		final long movementCycleInNanos = Math.min(snapshot.getMovementIntervalInNanos(),
+			snapshot.getRetryIntervalInNanos());
+		return HOUR_IN_NANOS / snapshot.getCheckIntervalInNanos()
+			+ HOUR_IN_NANOS / movementCycleInNanos;
+	}
+}